@@ -1,18 +1,24 @@
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * Class that examines 4 points at a time and checks whether they all lie on the
- * same line segment, returning all such line segments. To check whether the 4
- * points p, q, r, and s are collinear, check whether the three slopes between p
- * and q, between p and r, and between p and s are all equal.
+ * Class that finds, by brute force, all the line segments that contain
+ * minPoints or more points (4 by default). Each segment is identified by its
+ * two lowest points: for every point p the slopes to all the other points are
+ * computed once, and for every higher point q the points higher than q are
+ * compared with the slope of q, so a third point that is not on the line is
+ * rejected with a single comparison. The points found on a line of p are marked
+ * as used and are not tried again as q, and a line is only reported from its
+ * lowest point.
  * 
- * The method segments() should include each line segment containing 4 points
- * exactly once. If 4 points appear on a line segment in the order p->q->r->s,
- * then you should include either the line segment p->s or s->p (but not both)
- * and you should not include subsegments such as p->r or q->r.
- * 
- * **For simplicity, we will not supply any input to BruteCollinearPoints that
- * has 5 or more collinear points.
+ * The method segments() includes each maximal line segment exactly once, with
+ * all its points, and does not include subsegments: if the points p->q->r->s
+ * are on a line segment, only p->s is included. The running time is cubic in
+ * the worst case; the first points can be divided between threads with the
+ * parallel mode. The class is simple enough to be used as a reference for
+ * check the results of the faster detectors.
  * 
  * @author gabrielrodriguezj
  *
@@ -20,22 +26,58 @@ import java.util.Arrays;
 public class BruteCollinearPoints {
 
 	/**
-	 * Line segments formed by 4 points.
+	 * Minimum number of points of a line segment by default.
+	 */
+	private static final int NUMBER_POINTS_SEGMENT = 4;
+
+	/**
+	 * Minimum number of first points processed by a task in parallel mode.
+	 */
+	private static final int MIN_POINTS_PER_TASK = 4;
+
+	/**
+	 * Line segments formed by minPoints or more points.
 	 */
 	private final LineSegment[] segments;
 
 	/**
-	 * Finds all line segments containing 4 points.
+	 * Finds all line segments containing 4 or more points.
 	 * 
 	 * @param points Array of points
 	 */
 	public BruteCollinearPoints(Point[] points) {
+		this(points, NUMBER_POINTS_SEGMENT);
+	}
 
-		int NUMBER_POINTS_SEGMENT = 4;
+	/**
+	 * Finds all line segments containing minPoints or more points.
+	 * 
+	 * @param points    Array of points
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 */
+	public BruteCollinearPoints(Point[] points, int minPoints) {
+		this(points, minPoints, false);
+	}
+
+	/**
+	 * Finds all line segments containing minPoints or more points, optionally
+	 * processing the first points of the segments in parallel.
+	 * 
+	 * A pair p, q is discarded when the points that are left can not complete
+	 * the minimum. In parallel mode the ranges of first points are processed by
+	 * tasks of the common ForkJoinPool, and the segments are joined in order.
+	 * 
+	 * @param points    Array of points
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 * @param parallel  True for process the first points in parallel
+	 */
+	public BruteCollinearPoints(Point[] points, int minPoints, boolean parallel) {
 
 		// Check if the argument is null
 		if (points == null)
 			throw new IllegalArgumentException("The points array must not be null");
+		if (minPoints < 2)
+			throw new IllegalArgumentException("A line segment has at least 2 points");
 
 		// Check for null points
 		checkForNullPoints(points);
@@ -50,56 +92,87 @@ public class BruteCollinearPoints {
 		// Check for repeated points
 		checkForRepeatedPoints(localPoints);
 
-		// Initialize the local segment array
-		LineSegment[] localSegments = new LineSegment[0];
-
 		// Create the line segments; Sort the points allows this computation be
 		// easier
-		Point pi, pj, pk, pl = null;
-		boolean segmentedFormed = false;
-		for (int i = 0; i < localPoints.length - NUMBER_POINTS_SEGMENT + 1; i++) {
-			pi = localPoints[i];
-			for (int j = i + 1; j < localPoints.length - NUMBER_POINTS_SEGMENT + 2; j++) {
-				pj = localPoints[j];
-				for (int k = j + 1; k < localPoints.length - NUMBER_POINTS_SEGMENT + 3; k++) {
-					pk = localPoints[k];
-					for (int l = k + 1; l < localPoints.length - NUMBER_POINTS_SEGMENT + 4; l++) {
-						pl = localPoints[l];
-						double slope1 = pi.slopeTo(pj);
-						double slope2 = pj.slopeTo(pk);
-						double slope3 = pk.slopeTo(pl);
-
-						// Avoiding floating point comparison
-						int a = Double.compare(slope1, slope2);
-						int b = Double.compare(slope2, slope3);
-						if (a == 0 && b == 0) {
-							segmentedFormed = true;
-							break;
-						}
-					}
+		int n = localPoints.length;
+		ArrayList<LineSegment> localSegments;
+		if (parallel) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			int threshold = Math.max(MIN_POINTS_PER_TASK, n / (8 * pool.getParallelism()));
+			localSegments = pool.invoke(new PointsTask(localPoints, minPoints, 0, n, threshold));
+		} else {
+			localSegments = new ArrayList<>();
+			findSegments(localPoints, minPoints, 0, n, localSegments);
+		}
 
-					if (segmentedFormed) {
-						break;
-					}
-				}
+		// Segments detected
+		segments = localSegments.toArray(new LineSegment[localSegments.size()]);
+	}
+
+	/**
+	 * Method to find the segments whose first point is in a range.
+	 * 
+	 * @param points    Points sorted
+	 * @param minPoints Minimum number of points of a line segment
+	 * @param from      First point of the range
+	 * @param to        Last point of the range (exclusive)
+	 * @param segments  List that receives the segments found
+	 */
+	private static void findSegments(Point[] points, int minPoints, int from, int to,
+			ArrayList<LineSegment> segments) {
 
-				if (segmentedFormed) {
-					LineSegment ls = new LineSegment(pi, pl);
-					LineSegment[] tempSegments = new LineSegment[localSegments.length + 1];
+		int n = points.length;
+		double[] slopes = new double[n];
+		boolean[] used = new boolean[n];
 
-					// Copy the new line segment into the segments array
-					for (int k = 0; k < localSegments.length; k++) {
-						tempSegments[k] = localSegments[k];
+		for (int i = from; i < Math.min(to, n - minPoints + 1); i++) {
+			Point pi = points[i];
+			for (int k = 0; k < n; k++) {
+				slopes[k] = pi.slopeTo(points[k]);
+			}
+			Arrays.fill(used, false);
+
+			for (int j = i + 1; j < n - minPoints + 2; j++) {
+				// A point of a line already examined is not the second lowest point
+				if (used[j])
+					continue;
+
+				// Count the higher points of the line while the minimum can be reached
+				double slope = slopes[j];
+				int count = 2;
+				int last = j;
+				for (int k = j + 1; k < n && count + n - k >= minPoints; k++) {
+					if (Double.compare(slope, slopes[k]) == 0) {
+						used[k] = true;
+						count++;
+						last = k;
 					}
-					tempSegments[localSegments.length] = ls;
-					localSegments = tempSegments;
+				}
 
-					segmentedFormed = false;
+				// The point i must be the lowest point of the line
+				if (count >= minPoints && !hasLowerPoint(slopes, i, slope)) {
+					CollinearMetrics.countSegment();
+					segments.add(new LineSegment(pi, points[last]));
 				}
 			}
 		}
-		// Segments detected
-		segments = localSegments;
+	}
+
+	/**
+	 * Method for check if a point lower than the point i is on a line of the
+	 * point i.
+	 * 
+	 * @param slopes Slopes of all the points respect to the point i
+	 * @param i      Index of the point
+	 * @param slope  Slope of the line
+	 * @return True if there is a lower point on the line
+	 */
+	private static boolean hasLowerPoint(double[] slopes, int i, double slope) {
+		for (int k = 0; k < i; k++) {
+			if (Double.compare(slope, slopes[k]) == 0)
+				return true;
+		}
+		return false;
 	}
 
 	/**
@@ -143,4 +216,78 @@ public class BruteCollinearPoints {
 				throw new IllegalArgumentException("The points must not be null");
 		}
 	}
+
+	/**
+	 * Task that finds the segments whose first point is in a range; a big range
+	 * is divided in two tasks, and the segments of both halves are joined in
+	 * order.
+	 * 
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class PointsTask extends RecursiveTask<ArrayList<LineSegment>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Points sorted.
+		 */
+		private final Point[] points;
+
+		/**
+		 * Minimum number of points of a line segment.
+		 */
+		private final int minPoints;
+
+		/**
+		 * First point of the range.
+		 */
+		private final int from;
+
+		/**
+		 * Last point of the range (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of points processed without dividing the range.
+		 */
+		private final int threshold;
+
+		/**
+		 * Constructor of the task for a range of first points.
+		 * 
+		 * @param points    Points sorted
+		 * @param minPoints Minimum number of points of a line segment
+		 * @param from      First point of the range
+		 * @param to        Last point of the range (exclusive)
+		 * @param threshold Maximum number of points without dividing
+		 */
+		PointsTask(Point[] points, int minPoints, int from, int to, int threshold) {
+			this.points = points;
+			this.minPoints = minPoints;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		/**
+		 * Find the segments of the range, dividing it if it is big.
+		 */
+		@Override
+		protected ArrayList<LineSegment> compute() {
+			if (to - from <= threshold) {
+				ArrayList<LineSegment> segments = new ArrayList<>();
+				findSegments(points, minPoints, from, to, segments);
+				return segments;
+			}
+
+			int middle = (from + to) >>> 1;
+			PointsTask second = new PointsTask(points, minPoints, middle, to, threshold);
+			second.fork();
+			ArrayList<LineSegment> segments = new PointsTask(points, minPoints, from, middle, threshold).compute();
+			segments.addAll(second.join());
+			return segments;
+		}
+	}
 }
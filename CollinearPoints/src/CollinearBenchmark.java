@@ -0,0 +1,346 @@
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Client that measures the collinear detectors over generated sets of points
+ * and prints, for every detector, dataset and size, the time and the bytes
+ * allocated per point and the number of segments found. The sizes go from 100
+ * to the maximum size (1,000,000 by default), multiplying by 10 each time.
+ *
+ * The datasets are generated with a fixed seed, so every run uses the same
+ * points, with coordinates between 0 and 32,767:
+ * <ul>
+ * <li>random: points chosen uniformly at random.</li>
+ * <li>grid: a square grid, with many lines of many points.</li>
+ * <li>lines: horizontal lines of at least 4 points, moved at random so the
+ * columns are not aligned; the n-by-1 inputs of the assignment.</li>
+ * <li>heavy: half of the points on a few long lines with random directions, the
+ * rest at random.</li>
+ * </ul>
+ *
+ * The detectors are cubic or quadratic, so a detector that takes more than the
+ * time budget (60 seconds by default) for a size is not run for the bigger
+ * sizes of the same dataset.
+ *
+ * With -Dcollinear.metrics=true the counters of CollinearMetrics of the last
+ * run are printed too: calls of compareTo, slopes computed, calls of the
+ * comparator and time of the sorts by slope. The counters slow down the
+ * detectors, so the times are not comparable with a run without them.
+ *
+ * Usage: java CollinearBenchmark [maximum size] [time budget in seconds]
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class CollinearBenchmark {
+
+	/**
+	 * Maximum value of a coordinate.
+	 */
+	private static final int MAX_COORDINATE = 32767;
+
+	/**
+	 * Minimum size of the benchmark.
+	 */
+	private static final int MIN_SIZE = 100;
+
+	/**
+	 * Number of measured runs; the best one is reported.
+	 */
+	private static final int RUNS = 3;
+
+	/**
+	 * Accumulates the results of the detectors so the JIT can not remove them.
+	 */
+	private static long sink;
+
+	/**
+	 * Bytes allocated by the measurement itself, discounted from the results.
+	 */
+	private static long allocationOverhead;
+
+	/**
+	 * Detector of collinear points measured by the benchmark.
+	 */
+	private interface Detector {
+
+		/**
+		 * Finds the line segments of the points.
+		 *
+		 * @param points Array of points
+		 * @return Number of line segments
+		 */
+		int run(Point[] points);
+	}
+
+	/**
+	 * Generator of a dataset.
+	 */
+	private interface Generator {
+
+		/**
+		 * Creates n different points.
+		 *
+		 * @param n      Number of points
+		 * @param random Source of random numbers
+		 * @return Array of points
+		 */
+		Point[] generate(int n, SplittableRandom random);
+	}
+
+	/**
+	 * Runs every detector over every dataset and prints a table with the
+	 * results.
+	 *
+	 * @param args Optional maximum size and time budget in seconds
+	 */
+	public static void main(String[] args) {
+		int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		long budget = (long) ((args.length > 1 ? Double.parseDouble(args[1]) : 60) * 1e9);
+
+		allocationOverhead = allocatedBytes();
+		allocationOverhead = allocatedBytes() - allocationOverhead;
+
+		String[] datasets = { "random", "grid", "lines", "heavy" };
+		Generator[] generators = { CollinearBenchmark::random, CollinearBenchmark::grid, CollinearBenchmark::lines,
+				CollinearBenchmark::heavy };
+
+		String[] detectors = { "BruteCollinearPoints", "BruteCollinearPoints parallel", "FastCollinearPoints",
+				"FastCollinearPoints parallel", "HashCollinearPoints", "IncrementalCollinearPoints" };
+		Detector[] runs = { points -> new BruteCollinearPoints(points).numberOfSegments(),
+				points -> new BruteCollinearPoints(points, 4, true).numberOfSegments(),
+				points -> new FastCollinearPoints(points).numberOfSegments(),
+				points -> new FastCollinearPoints(points, true).numberOfSegments(),
+				points -> new HashCollinearPoints(points).numberOfSegments(), CollinearBenchmark::incremental };
+
+		StdOut.printf("%-30s %-8s %10s %14s %14s %10s%n", "detector", "dataset", "n", "ns/point", "bytes/point",
+				"segments");
+		for (int d = 0; d < datasets.length; d++) {
+			boolean[] stopped = new boolean[runs.length];
+			for (int n = MIN_SIZE; n <= maxSize; n *= 10) {
+				Point[] points = generators[d].generate(n, new SplittableRandom(n));
+				for (int r = 0; r < runs.length; r++) {
+					if (!stopped[r]) {
+						stopped[r] = measure(detectors[r], datasets[d], points, runs[r], budget) > budget;
+					}
+				}
+				StdOut.println();
+			}
+		}
+		StdOut.println("checksum " + sink);
+	}
+
+	/**
+	 * Runs a detector and prints the time and the bytes allocated per point of
+	 * the best run. The first run also warms up the detector; if a run takes more
+	 * than the time budget there are no more runs.
+	 *
+	 * @param name     Name of the detector
+	 * @param dataset  Name of the dataset
+	 * @param points   Points of the dataset
+	 * @param detector Detector to measure
+	 * @param budget   Time budget, in nanoseconds
+	 * @return Time of the best run, in nanoseconds
+	 */
+	private static long measure(String name, String dataset, Point[] points, Detector detector, long budget) {
+		long bestTime = Long.MAX_VALUE;
+		long bestBytes = Long.MAX_VALUE;
+		int segments = 0;
+		long time = 0;
+		for (int i = 0; i < RUNS && time <= budget; i++) {
+			CollinearMetrics.reset();
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			segments = detector.run(points);
+			time = System.nanoTime() - start;
+			bytes = allocatedBytes() - bytes - allocationOverhead;
+
+			sink += segments;
+			bestTime = Math.min(bestTime, time);
+			bestBytes = Math.min(bestBytes, Math.max(bytes, 0));
+		}
+
+		StdOut.printf("%-30s %-8s %10d %14.1f %14.1f %10d%n", name, dataset, points.length,
+				(double) bestTime / points.length, (double) bestBytes / points.length, segments);
+
+		// Counters of the last run
+		if (CollinearMetrics.isEnabled()) {
+			CollinearMetrics metrics = CollinearMetrics.snapshot();
+			StdOut.printf("%40s compareTo %d, slopes %d, comparator %d, sorts %d (%.0f ns avg, %d ns max)%n", "",
+					metrics.compareToCalls(), metrics.slopes(), metrics.comparatorCalls(), metrics.sorts(),
+					metrics.averageSortNanos(), metrics.maxSortNanos());
+		}
+		return bestTime;
+	}
+
+	/**
+	 * Method that return the bytes allocated by the current thread; the parallel
+	 * detectors also allocate in other threads, which are not counted.
+	 *
+	 * @return Bytes allocated, or 0 if the JVM does not support the measurement.
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * Adds the points one by one to an IncrementalCollinearPoints.
+	 *
+	 * @param points Array of points
+	 * @return Number of line segments
+	 */
+	private static int incremental(Point[] points) {
+		IncrementalCollinearPoints collinear = new IncrementalCollinearPoints();
+		for (Point p : points) {
+			collinear.add(p);
+		}
+		return collinear.numberOfSegments();
+	}
+
+	/**
+	 * Creates n points chosen uniformly at random.
+	 *
+	 * @param n      Number of points
+	 * @param random Source of random numbers
+	 * @return Array of points
+	 */
+	private static Point[] random(int n, SplittableRandom random) {
+		PointSet set = new PointSet(n);
+		set.fillRandom(random);
+		return set.points;
+	}
+
+	/**
+	 * Creates the first n points of a square grid.
+	 *
+	 * @param n      Number of points
+	 * @param random Source of random numbers, not used
+	 * @return Array of points
+	 */
+	private static Point[] grid(int n, SplittableRandom random) {
+		int side = (int) Math.ceil(Math.sqrt(n));
+		int spacing = (MAX_COORDINATE + 1) / side;
+		PointSet set = new PointSet(n);
+		for (int i = 0; i < n; i++) {
+			set.add(i % side * spacing, i / side * spacing);
+		}
+		return set.points;
+	}
+
+	/**
+	 * Creates n points on horizontal lines of at least 4 points. Every line
+	 * starts at a random position, so the points of different lines are not
+	 * aligned.
+	 *
+	 * @param n      Number of points
+	 * @param random Source of random numbers
+	 * @return Array of points
+	 */
+	private static Point[] lines(int n, SplittableRandom random) {
+		int perLine = Math.max(4, n / 4096);
+		int rows = (n + perLine - 1) / perLine;
+		int rowSpacing = (MAX_COORDINATE + 1) / rows;
+		int spacing = (MAX_COORDINATE + 1) / perLine;
+
+		PointSet set = new PointSet(n);
+		int x = 0;
+		for (int i = 0; i < n; i++) {
+			x = i % perLine == 0 ? random.nextInt(spacing) : x + spacing;
+			set.add(x, i / perLine * rowSpacing);
+		}
+		return set.points;
+	}
+
+	/**
+	 * Creates n points, half of them on about sqrt(n) lines with random
+	 * directions and the rest at random.
+	 *
+	 * @param n      Number of points
+	 * @param random Source of random numbers
+	 * @return Array of points
+	 */
+	private static Point[] heavy(int n, SplittableRandom random) {
+		int lines = Math.max(1, (int) Math.sqrt(n));
+		int perLine = Math.max(4, n / 2 / lines);
+		int maxStep = Math.max(1, MAX_COORDINATE / perLine);
+
+		PointSet set = new PointSet(n);
+		for (int line = 0; line < lines && set.size < n / 2; line++) {
+			int dx = random.nextInt(-maxStep, maxStep + 1);
+			int dy = random.nextInt(1, maxStep + 1);
+			int x0 = dx >= 0 ? random.nextInt(MAX_COORDINATE - dx * (perLine - 1) + 1)
+					: random.nextInt(-dx * (perLine - 1), MAX_COORDINATE + 1);
+			int y0 = random.nextInt(MAX_COORDINATE - dy * (perLine - 1) + 1);
+			for (int k = 0; k < perLine && set.size < n; k++) {
+				set.add(x0 + k * dx, y0 + k * dy);
+			}
+		}
+		set.fillRandom(random);
+		return set.points;
+	}
+
+	/**
+	 * Array of different points under construction.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class PointSet {
+
+		/**
+		 * Points added.
+		 */
+		private final Point[] points;
+
+		/**
+		 * Number of points added.
+		 */
+		private int size;
+
+		/**
+		 * Keys of the points added, for discard the repeated points.
+		 */
+		private final HashSet<Integer> keys;
+
+		/**
+		 * Constructor of an empty set for n points.
+		 *
+		 * @param n Number of points
+		 */
+		PointSet(int n) {
+			points = new Point[n];
+			size = 0;
+			keys = new HashSet<>();
+		}
+
+		/**
+		 * Add a point if it is not repeated.
+		 *
+		 * @param x X-coordinate of the point
+		 * @param y Y-coordinate of the point
+		 */
+		void add(int x, int y) {
+			if (keys.add(x * (MAX_COORDINATE + 1) + y)) {
+				points[size++] = new Point(x, y);
+			}
+		}
+
+		/**
+		 * Fill the set with points chosen uniformly at random.
+		 *
+		 * @param random Source of random numbers
+		 */
+		void fillRandom(SplittableRandom random) {
+			while (size < points.length) {
+				add(random.nextInt(MAX_COORDINATE + 1), random.nextInt(MAX_COORDINATE + 1));
+			}
+		}
+	}
+}
@@ -0,0 +1,275 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the work done by the collinear detectors: calls of
+ * Point.compareTo(), slopes computed (Point.slopeTo() and the slopes of
+ * PointCoordinates), calls of the slopeOrder() comparator, sorts by slope and
+ * their time, and segments reported.
+ *
+ * The counters are disabled by default and are enabled with the system property
+ * collinear.metrics (java -Dcollinear.metrics=true ...). The property is read
+ * once in a constant, so when it is disabled the JIT removes the calls of the
+ * counters and the detectors run without any cost. The counters can be updated
+ * by many threads; a snapshot() gives their values at a moment.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public final class CollinearMetrics {
+
+	/**
+	 * True if the counters are enabled.
+	 */
+	private static final boolean ENABLED = Boolean.getBoolean("collinear.metrics");
+
+	/**
+	 * Calls of Point.compareTo().
+	 */
+	private static final LongAdder COMPARE_TO = new LongAdder();
+
+	/**
+	 * Slopes computed.
+	 */
+	private static final LongAdder SLOPES = new LongAdder();
+
+	/**
+	 * Calls of the slopeOrder() comparator.
+	 */
+	private static final LongAdder COMPARATOR = new LongAdder();
+
+	/**
+	 * Sorts by slope, one per origin point.
+	 */
+	private static final LongAdder SORTS = new LongAdder();
+
+	/**
+	 * Time of all the sorts, in nanoseconds.
+	 */
+	private static final LongAdder SORT_NANOS = new LongAdder();
+
+	/**
+	 * Time of the slowest sort, in nanoseconds.
+	 */
+	private static final LongAccumulator MAX_SORT_NANOS = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Segments reported.
+	 */
+	private static final LongAdder SEGMENTS = new LongAdder();
+
+	/**
+	 * Calls of Point.compareTo() of the snapshot.
+	 */
+	private final long compareToCalls;
+
+	/**
+	 * Slopes computed of the snapshot.
+	 */
+	private final long slopes;
+
+	/**
+	 * Calls of the comparator of the snapshot.
+	 */
+	private final long comparatorCalls;
+
+	/**
+	 * Sorts of the snapshot.
+	 */
+	private final long sorts;
+
+	/**
+	 * Time of all the sorts of the snapshot, in nanoseconds.
+	 */
+	private final long sortNanos;
+
+	/**
+	 * Time of the slowest sort of the snapshot, in nanoseconds.
+	 */
+	private final long maxSortNanos;
+
+	/**
+	 * Segments reported of the snapshot.
+	 */
+	private final long segments;
+
+	/**
+	 * Constructor of a snapshot with the current values of the counters.
+	 */
+	private CollinearMetrics() {
+		compareToCalls = COMPARE_TO.sum();
+		slopes = SLOPES.sum();
+		comparatorCalls = COMPARATOR.sum();
+		sorts = SORTS.sum();
+		sortNanos = SORT_NANOS.sum();
+		maxSortNanos = MAX_SORT_NANOS.get();
+		segments = SEGMENTS.sum();
+	}
+
+	/**
+	 * Method for determinate if the counters are enabled.
+	 *
+	 * @return True if the counters are enabled
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * Return the current values of the counters.
+	 *
+	 * @return Snapshot of the counters
+	 */
+	public static CollinearMetrics snapshot() {
+		return new CollinearMetrics();
+	}
+
+	/**
+	 * Set all the counters to zero.
+	 */
+	public static void reset() {
+		COMPARE_TO.reset();
+		SLOPES.reset();
+		COMPARATOR.reset();
+		SORTS.reset();
+		SORT_NANOS.reset();
+		MAX_SORT_NANOS.reset();
+		SEGMENTS.reset();
+	}
+
+	/**
+	 * Count a call of Point.compareTo().
+	 */
+	static void countCompareTo() {
+		if (ENABLED)
+			COMPARE_TO.increment();
+	}
+
+	/**
+	 * Count a slope computed.
+	 */
+	static void countSlope() {
+		if (ENABLED)
+			SLOPES.increment();
+	}
+
+	/**
+	 * Count a call of the slopeOrder() comparator.
+	 */
+	static void countComparator() {
+		if (ENABLED)
+			COMPARATOR.increment();
+	}
+
+	/**
+	 * Count a segment reported.
+	 */
+	static void countSegment() {
+		if (ENABLED)
+			SEGMENTS.increment();
+	}
+
+	/**
+	 * Method that return the start time of a sort.
+	 *
+	 * @return Current time in nanoseconds, or 0 if the counters are disabled
+	 */
+	static long startSort() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Count a sort that began at the provided time.
+	 *
+	 * @param start Value returned by startSort()
+	 */
+	static void endSort(long start) {
+		if (ENABLED) {
+			long time = System.nanoTime() - start;
+			SORTS.increment();
+			SORT_NANOS.add(time);
+			MAX_SORT_NANOS.accumulate(time);
+		}
+	}
+
+	/**
+	 * Return the number of calls of Point.compareTo().
+	 *
+	 * @return calls of compareTo
+	 */
+	public long compareToCalls() {
+		return compareToCalls;
+	}
+
+	/**
+	 * Return the number of slopes computed.
+	 *
+	 * @return slopes computed
+	 */
+	public long slopes() {
+		return slopes;
+	}
+
+	/**
+	 * Return the number of calls of the slopeOrder() comparator.
+	 *
+	 * @return calls of the comparator
+	 */
+	public long comparatorCalls() {
+		return comparatorCalls;
+	}
+
+	/**
+	 * Return the number of sorts by slope.
+	 *
+	 * @return sorts
+	 */
+	public long sorts() {
+		return sorts;
+	}
+
+	/**
+	 * Return the time of all the sorts, in nanoseconds.
+	 *
+	 * @return time of the sorts
+	 */
+	public long sortNanos() {
+		return sortNanos;
+	}
+
+	/**
+	 * Return the average time of a sort, in nanoseconds.
+	 *
+	 * @return average time of a sort, 0 if there are no sorts
+	 */
+	public double averageSortNanos() {
+		return sorts == 0 ? 0 : (double) sortNanos / sorts;
+	}
+
+	/**
+	 * Return the time of the slowest sort, in nanoseconds.
+	 *
+	 * @return time of the slowest sort
+	 */
+	public long maxSortNanos() {
+		return maxSortNanos;
+	}
+
+	/**
+	 * Return the number of segments reported.
+	 *
+	 * @return segments reported
+	 */
+	public long segments() {
+		return segments;
+	}
+
+	/**
+	 * Return the values in a String representation.
+	 */
+	@Override
+	public String toString() {
+		return "compareTo=" + compareToCalls + " slopes=" + slopes + " comparator=" + comparatorCalls + " sorts="
+				+ sorts + " sortNanos=" + sortNanos + " maxSortNanos=" + maxSortNanos + " segments=" + segments;
+	}
+}
@@ -1,3 +1,5 @@
+import java.util.function.Consumer;
+
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdOut;
@@ -6,8 +8,13 @@ import edu.princeton.cs.algs4.StdOut;
  * This class is a client program that takes the name of an input file as a
  * command-line argument; read the input file ( in the following format: An
  * integer n, followed by n pairs of integers (x, y), each between 0 and
- * 32,767.), prints to standard output the line segments that your program
- * discovers, one per line; and draws to standard draw the line segments.
+ * 32,767., or a binary file .bin created by PointFile), prints to standard
+ * output the line segments that your program discovers, one per line, as soon
+ * as they are discovered; and draws to standard draw the line segments.
+ * 
+ * An optional second argument selects the detector: fast (by default), brute or
+ * hash. The fast detector gives each segment as soon as it is found; the others
+ * give the segments when the search ends.
  * 
  * @author gabrielrodriguezj
  *
@@ -21,14 +28,7 @@ public class CollinearPointsClient {
 	 */
 	public static void main(String[] args) {
 		// read the n points from a file
-		In in = new In(args[0]);
-		int n = in.readInt();
-		Point[] points = new Point[n];
-		for (int i = 0; i < n; i++) {
-			int x = in.readInt();
-			int y = in.readInt();
-			points[i] = new Point(x, y);
-		}
+		Point[] points = readPoints(args[0]);
 
 		// draw the points
 		StdDraw.enableDoubleBuffering();
@@ -41,12 +41,59 @@ public class CollinearPointsClient {
 		StdDraw.show();
 
 		// print and draw the line segments
-		// BruteCollinearPoints collinear = new BruteCollinearPoints(points);
-		FastCollinearPoints collinear = new FastCollinearPoints(points);
-		for (LineSegment segment : collinear.segments()) {
+		Consumer<LineSegment> action = segment -> {
 			StdOut.println(segment);
 			segment.draw();
+		};
+		String detector = args.length > 1 ? args[1] : "fast";
+		switch (detector) {
+		case "fast":
+			FastCollinearPoints.forEachSegment(points, action);
+			break;
+		case "brute":
+			forEach(new BruteCollinearPoints(points).segments(), action);
+			break;
+		case "hash":
+			forEach(new HashCollinearPoints(points).segments(), action);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown detector " + detector);
 		}
 		StdDraw.show();
 	}
+
+	/**
+	 * Method for perform the action over every line segment.
+	 * 
+	 * @param segments Array of line segments
+	 * @param action   Action performed for each line segment
+	 */
+	private static void forEach(LineSegment[] segments, Consumer<LineSegment> action) {
+		for (LineSegment segment : segments) {
+			action.accept(segment);
+		}
+	}
+
+	/**
+	 * Read the points of a file; the files .bin are in the binary format of
+	 * PointFile, the others in the text format.
+	 * 
+	 * @param fileName Name of the file
+	 * @return Points of the file
+	 */
+	static Point[] readPoints(String fileName) {
+		if (fileName.endsWith(".bin")) {
+			return PointFile.readPoints(fileName);
+		}
+
+		In in = new In(fileName);
+		int n = in.readInt();
+		Point[] points = new Point[n];
+		for (int i = 0; i < n; i++) {
+			int x = in.readInt();
+			int y = in.readInt();
+			points[i] = new Point(x, y);
+		}
+		return points;
+	}
 }
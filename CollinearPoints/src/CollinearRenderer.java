@@ -0,0 +1,318 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class that draws points and line segments in an image in memory, without a
+ * window, and saves it as a PNG file. Point.draw() and LineSegment.draw() go
+ * through StdDraw one element at a time; this class writes the pixels of all
+ * the points and segments directly in the array of the image, in one pass. The
+ * coordinates between 0 and 32,768 are scaled to the size of the image, like
+ * the scale of CollinearPointsClient.
+ *
+ * All the elements are drawn with the same color, so the pixels written by
+ * different elements do not depend on the order: in parallel mode the elements
+ * are divided between threads that write in the same image.
+ *
+ * The main method works on servers without display: java
+ * -Djava.awt.headless=true CollinearRenderer input.txt output.png [size]
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class CollinearRenderer {
+
+	/**
+	 * Maximum coordinate of the plane.
+	 */
+	private static final int SCALE = 32768;
+
+	/**
+	 * Color of the background.
+	 */
+	private static final int BACKGROUND = 0xFFFFFF;
+
+	/**
+	 * Color of the points and segments.
+	 */
+	private static final int FOREGROUND = 0x000000;
+
+	/**
+	 * Minimum number of elements drawn by a task in parallel mode.
+	 */
+	private static final int MIN_ELEMENTS_PER_TASK = 4096;
+
+	/**
+	 * Image where the elements are drawn.
+	 */
+	private final BufferedImage image;
+
+	/**
+	 * Pixels of the image, row by row from the top.
+	 */
+	private final int[] pixels;
+
+	/**
+	 * Width and height of the image.
+	 */
+	private final int size;
+
+	/**
+	 * Radius of the points, in pixels.
+	 */
+	private final int radius;
+
+	/**
+	 * Constructs a white square image.
+	 *
+	 * @param size   Width and height of the image, in pixels
+	 * @param radius Radius of the points, in pixels
+	 */
+	public CollinearRenderer(int size, int radius) {
+		if (size <= 0)
+			throw new IllegalArgumentException("The size must be positive");
+		if (radius < 0)
+			throw new IllegalArgumentException("The radius must not be negative");
+
+		this.size = size;
+		this.radius = radius;
+		this.image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		Arrays.fill(pixels, BACKGROUND);
+	}
+
+	/**
+	 * Draws the points and the line segments.
+	 *
+	 * @param points   Array of points
+	 * @param segments Array of line segments
+	 * @param parallel True for divide the elements between threads
+	 */
+	public void draw(Point[] points, LineSegment[] segments, boolean parallel) {
+		if (points == null || segments == null)
+			throw new IllegalArgumentException("The points and segments must not be null");
+
+		int total = points.length + segments.length;
+		if (parallel) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			int threshold = Math.max(MIN_ELEMENTS_PER_TASK, total / (8 * pool.getParallelism()));
+			pool.invoke(new DrawTask(points, segments, 0, total, threshold));
+		} else {
+			drawRange(points, segments, 0, total);
+		}
+	}
+
+	/**
+	 * Return the image.
+	 *
+	 * @return image with the elements drawn
+	 */
+	public BufferedImage image() {
+		return image;
+	}
+
+	/**
+	 * Save the image in a PNG file.
+	 *
+	 * @param fileName Name of the file
+	 */
+	public void writePng(String fileName) {
+		try {
+			ImageIO.write(image, "png", new File(fileName));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not write the file " + fileName, e);
+		}
+	}
+
+	/**
+	 * Method for draw a range of elements: first the points, then the segments.
+	 *
+	 * @param points   Array of points
+	 * @param segments Array of line segments
+	 * @param from     First element
+	 * @param to       Last element (exclusive)
+	 */
+	private void drawRange(Point[] points, LineSegment[] segments, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (i < points.length) {
+				drawPoint(points[i]);
+			} else {
+				LineSegment segment = segments[i - points.length];
+				drawLine(column(segment.p().x()), row(segment.p().y()), column(segment.q().x()),
+						row(segment.q().y()));
+			}
+		}
+	}
+
+	/**
+	 * Draws a point as a filled circle.
+	 *
+	 * @param point Point to draw
+	 */
+	private void drawPoint(Point point) {
+		int column = column(point.x());
+		int row = row(point.y());
+		for (int dy = -radius; dy <= radius; dy++) {
+			for (int dx = -radius; dx <= radius; dx++) {
+				if (dx * dx + dy * dy <= radius * radius) {
+					plot(column + dx, row + dy);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws a line between two pixels with the Bresenham algorithm, only with
+	 * integer arithmetic.
+	 *
+	 * @param column0 Column of the first pixel
+	 * @param row0    Row of the first pixel
+	 * @param column1 Column of the second pixel
+	 * @param row1    Row of the second pixel
+	 */
+	private void drawLine(int column0, int row0, int column1, int row1) {
+		int dx = Math.abs(column1 - column0);
+		int dy = -Math.abs(row1 - row0);
+		int stepX = column0 < column1 ? 1 : -1;
+		int stepY = row0 < row1 ? 1 : -1;
+		int error = dx + dy;
+
+		while (true) {
+			plot(column0, row0);
+			if (column0 == column1 && row0 == row1)
+				return;
+			int doubleError = 2 * error;
+			if (doubleError >= dy) {
+				error += dy;
+				column0 += stepX;
+			}
+			if (doubleError <= dx) {
+				error += dx;
+				row0 += stepY;
+			}
+		}
+	}
+
+	/**
+	 * Paints a pixel, if it is inside the image.
+	 *
+	 * @param column Column of the pixel
+	 * @param row    Row of the pixel
+	 */
+	private void plot(int column, int row) {
+		if (column >= 0 && column < size && row >= 0 && row < size) {
+			pixels[row * size + column] = FOREGROUND;
+		}
+	}
+
+	/**
+	 * Column of the image of a x-coordinate.
+	 *
+	 * @param x X-coordinate
+	 * @return Column of the pixel
+	 */
+	private int column(int x) {
+		return (int) ((long) x * size / SCALE);
+	}
+
+	/**
+	 * Row of the image of a y-coordinate; the rows go from the top.
+	 *
+	 * @param y Y-coordinate
+	 * @return Row of the pixel
+	 */
+	private int row(int y) {
+		return size - 1 - (int) ((long) y * size / SCALE);
+	}
+
+	/**
+	 * Reads the points of a file, finds the line segments with
+	 * FastCollinearPoints and saves the drawing in a PNG file.
+	 *
+	 * @param args Name of the points file, name of the PNG file and optional size
+	 *             of the image
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+		Point[] points = CollinearPointsClient.readPoints(args[0]);
+		LineSegment[] segments = new FastCollinearPoints(points, true).segments();
+
+		CollinearRenderer renderer = new CollinearRenderer(size, Math.max(1, size / 512));
+		renderer.draw(points, segments, true);
+		renderer.writePng(args[1]);
+	}
+
+	/**
+	 * Task that draws a range of elements; a big range is divided in two tasks.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private class DrawTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Array of points.
+		 */
+		private final Point[] points;
+
+		/**
+		 * Array of line segments.
+		 */
+		private final LineSegment[] segments;
+
+		/**
+		 * First element.
+		 */
+		private final int from;
+
+		/**
+		 * Last element (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of elements drawn without dividing the range.
+		 */
+		private final int threshold;
+
+		/**
+		 * Constructor of the task for a range of elements.
+		 *
+		 * @param points    Array of points
+		 * @param segments  Array of line segments
+		 * @param from      First element
+		 * @param to        Last element (exclusive)
+		 * @param threshold Maximum number of elements without dividing
+		 */
+		DrawTask(Point[] points, LineSegment[] segments, int from, int to, int threshold) {
+			this.points = points;
+			this.segments = segments;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		/**
+		 * Draw the range, dividing it if it is big.
+		 */
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				drawRange(points, segments, from, to);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new DrawTask(points, segments, from, middle, threshold),
+					new DrawTask(points, segments, middle, to, threshold));
+		}
+	}
+}
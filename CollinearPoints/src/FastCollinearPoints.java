@@ -1,11 +1,14 @@
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 /**
  * Class that solve the same problem that the BruteCollinearPoints class solve,
  * but is a faster and sorting-based solution. Given a point p, the following
  * method determines whether p participates in a set of 4 or more collinear
- * points.
+ * points. The minimum number of points of a segment can be changed.
  * 
  * @author gabrielrodriguezj
  *
@@ -13,14 +16,19 @@ import java.util.Arrays;
 public class FastCollinearPoints {
 
 	/**
-	 * Line segments formed by 4 points.
+	 * Line segments formed by minPoints or more points.
 	 */
 	private final ArrayList<LineSegment> segments;
 
 	/**
-	 * Auxiliary list for save the initial and final points of a line segment
+	 * Minimum number of points of a line segment by default.
 	 */
-	private final ArrayList<Point> pointsLineSegment;
+	private static final int NUMBER_POINTS_SEGMENT = 4;
+
+	/**
+	 * Minimum number of origin points processed by a task in parallel mode.
+	 */
+	private static final int MIN_ORIGINS_PER_TASK = 16;
 
 	/**
 	 * Finds all line segments containing 4 or more points.
@@ -41,75 +49,189 @@ public class FastCollinearPoints {
 	 * @param points Array of points
 	 */
 	public FastCollinearPoints(Point[] points) {
+		this(points, false);
+	}
 
-		// Check if the argument is null
-		if (points == null)
-			throw new IllegalArgumentException("The points array must not be null");
-
-		// Check for null points
-		checkForNullPoints(points);
-
-		// Array for handle points
-		Point[] localPoints = points.clone();
-
-		// Check for null or repeated point
-		Arrays.sort(localPoints);
-		checkForRepeatedPoints(localPoints);
+	/**
+	 * Finds all line segments containing 4 or more points, optionally processing
+	 * the origin points in parallel.
+	 * 
+	 * Every origin point is independent of the others, so in parallel mode the
+	 * origins are divided in ranges processed by the tasks of the common
+	 * fork-join pool; every worker thread keeps its own scratch arrays and reuses
+	 * them for all its ranges. The segments found by the tasks are joined in the
+	 * order of the origins, so the result is the same of the serial mode.
+	 * 
+	 * @param points   Array of points
+	 * @param parallel True for process the origin points in parallel
+	 */
+	public FastCollinearPoints(Point[] points, boolean parallel) {
+		this(new PointCoordinates(points), parallel);
+	}
 
-		// Initialize the list of segments
-		segments = new ArrayList<>();
+	/**
+	 * Finds all line segments containing 4 or more points of a set saved as
+	 * arrays of coordinates, optionally processing the origin points in parallel.
+	 * 
+	 * @param points   Coordinates of the points
+	 * @param parallel True for process the origin points in parallel
+	 */
+	public FastCollinearPoints(PointCoordinates points, boolean parallel) {
+		this(points, NUMBER_POINTS_SEGMENT, parallel);
+	}
 
-		// Initialize the list of points for determinate line segments repeated
-		pointsLineSegment = new ArrayList<>();
+	/**
+	 * Finds all line segments containing minPoints or more points of a set saved
+	 * as arrays of coordinates, optionally processing the origin points in
+	 * parallel.
+	 * 
+	 * @param points    Coordinates of the points
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 * @param parallel  True for process the origin points in parallel
+	 */
+	public FastCollinearPoints(PointCoordinates points, int minPoints, boolean parallel) {
+
+		// Check the arguments
+		checkArguments(points, minPoints);
+
+		// Find the segments; every segment is found only once, by its initial point
+		if (parallel) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			int threshold = Math.max(MIN_ORIGINS_PER_TASK, points.size() / (8 * pool.getParallelism()));
+			segments = pool.invoke(new OriginTask(points, minPoints, 0, points.size(), threshold));
+		} else {
+			segments = new ArrayList<>();
+			findSegments(points, minPoints, 0, points.size(), new SlopeSorter(points.size()),
+					segmentAction(segments::add));
+		}
+	}
 
-		for (int i = 0; i < points.length; i++) {
+	/**
+	 * Finds all line segments containing 4 or more points and gives each one to
+	 * the action as soon as it is found, without saving them. Allows to process
+	 * or write the segments while the search continues, and the memory used does
+	 * not depend on the number of segments.
+	 * 
+	 * @param points Array of points
+	 * @param action Action performed for each line segment
+	 */
+	public static void forEachSegment(Point[] points, Consumer<? super LineSegment> action) {
+		forEachSegment(new PointCoordinates(points), NUMBER_POINTS_SEGMENT, action);
+	}
 
-			/// Make a copy of the array, just sort the copy array, not the original
-			localPoints = points.clone();
+	/**
+	 * Finds all line segments containing minPoints or more points of a set saved
+	 * as arrays of coordinates and gives each one to the action as soon as it is
+	 * found.
+	 * 
+	 * @param points    Coordinates of the points
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 * @param action    Action performed for each line segment
+	 */
+	public static void forEachSegment(PointCoordinates points, int minPoints, Consumer<? super LineSegment> action) {
+		checkArguments(points, minPoints);
+		if (action == null)
+			throw new IllegalArgumentException("The action must not be null");
 
-			// Sort the array elements by the slope respect to the current element
-			// (points[i])
-			Arrays.sort(localPoints, points[i].slopeOrder());
+		findSegments(points, minPoints, 0, points.size(), new SlopeSorter(points.size()), segmentAction(action));
+	}
 
-			// Initial conditions
-			double slope = points[i].slopeTo(localPoints[0]);
-			int consecutivePoints = 1;
-			int beginSubArray = 0;
+	/**
+	 * Finds all the lines that contain minPoints or more points and gives to the
+	 * action all the points of each line, not only the initial and final points.
+	 * The points of a line are sorted.
+	 * 
+	 * @param points    Coordinates of the points
+	 * @param minPoints Minimum number of points of a line, at least 2
+	 * @param action    Action performed for the points of each line
+	 */
+	public static void forEachLine(PointCoordinates points, int minPoints, Consumer<? super Point[]> action) {
+		checkArguments(points, minPoints);
+		if (action == null)
+			throw new IllegalArgumentException("The action must not be null");
+
+		findSegments(points, minPoints, 0, points.size(), new SlopeSorter(points.size()),
+				(coordinates, origin, order, begin, count, last) -> {
+					// The origin is the lowest point, sort the others by position
+					int[] indices = new int[count + 1];
+					indices[0] = origin;
+					System.arraycopy(order, begin, indices, 1, count);
+					Arrays.sort(indices, 1, count + 1);
+
+					Point[] line = new Point[count + 1];
+					for (int i = 0; i <= count; i++) {
+						line[i] = coordinates.point(indices[i]);
+					}
+					action.accept(line);
+				});
+	}
 
-			for (int j = 1; j < localPoints.length; j++) {
+	/**
+	 * Method for check the points and the minimum number of points of a segment.
+	 * 
+	 * @param points    Coordinates of the points
+	 * @param minPoints Minimum number of points of a line segment
+	 */
+	private static void checkArguments(PointCoordinates points, int minPoints) {
+		if (points == null)
+			throw new IllegalArgumentException("The points must not be null");
+		if (minPoints < 2)
+			throw new IllegalArgumentException("A line segment has at least 2 points");
+	}
 
-				// Slope of the actual point and the j element in the sorted array
-				double slopeTemp = points[i].slopeTo(localPoints[j]);
+	/**
+	 * Method that return a line action that creates the line segment from the
+	 * initial and final points and gives it to the action. The segments are
+	 * counted here, where they are reported; the lines given to forEachLine() are
+	 * not segments yet.
+	 * 
+	 * @param action Action performed for each line segment
+	 * @return Line action
+	 */
+	private static LineAction segmentAction(Consumer<? super LineSegment> action) {
+		return (coordinates, origin, order, begin, count, last) -> {
+			CollinearMetrics.countSegment();
+			action.accept(new LineSegment(coordinates.point(origin), coordinates.point(last)));
+		};
+	}
 
-				int comparison = Double.compare(slope, slopeTemp);
+	/**
+	 * Method to find the segments formed by a range of origin points.
+	 * 
+	 * An origin point creates only the segments where it is the lowest point, so
+	 * the points with less than minPoints - 1 higher points are not processed:
+	 * raising the minimum number of points reduces the work.
+	 * 
+	 * @param points    Coordinates of the points, sorted
+	 * @param minPoints Minimum number of points of a line segment
+	 * @param from      First origin point
+	 * @param to        Last origin point (exclusive)
+	 * @param sorter    Scratch arrays for the slopes, reused for every point
+	 * @param action    Action that receives the segments found
+	 */
+	private static void findSegments(PointCoordinates points, int minPoints, int from, int to, SlopeSorter sorter,
+			LineAction action) {
 
-				if (comparison == 0) {
-					consecutivePoints++;
+		int lastOrigin = Math.min(to, points.size() - minPoints + 1);
+		for (int i = from; i < lastOrigin; i++) {
 
-					// Condition if the line segments ends in the last element of the array
-					if (j == localPoints.length - 1 && consecutivePoints >= 3) {
+			// Compute once the slope of every other point respect to the current
+			// point i and sort the indices of the points by slope
+			long start = CollinearMetrics.startSort();
+			int others = sorter.sort(points, i);
+			CollinearMetrics.endSort(start);
+			long[] slopes = sorter.keys;
+			int[] order = sorter.order;
 
+			// Look for minPoints - 1 or more consecutive points with the same slope
+			int beginSubArray = 0;
+			for (int j = 1; j <= others; j++) {
+				if (j == others || slopes[j] != slopes[beginSubArray]) {
+					int consecutivePoints = j - beginSubArray;
+					if (consecutivePoints >= minPoints - 1) {
 						// Method for create and evaluate the segment
-						generateSegment(consecutivePoints, points[i], localPoints, beginSubArray);
-
-						// Reinitialize the conditions for keep creating line segments
-						slope = slopeTemp;
-						consecutivePoints = 1;
-						beginSubArray = j;
-
+						generateSegment(consecutivePoints, i, points, order, beginSubArray, action);
 					}
-				} else if (consecutivePoints < 3) { // slopeTemp and slope are different
-					slope = slopeTemp;
-					consecutivePoints = 1;
-					beginSubArray = j;
-				} else { // consecutivePoints is 3 or greatest
-
-					// Method for create and evaluate the segment
-					generateSegment(consecutivePoints, points[i], localPoints, beginSubArray);
-
-					// Reinitialize the conditions for continue creating line segments
-					slope = slopeTemp;
-					consecutivePoints = 1;
 					beginSubArray = j;
 				}
 			}
@@ -117,112 +239,314 @@ public class FastCollinearPoints {
 	}
 
 	/**
-	 * Method to create a segment if it not exist.
+	 * Method to create a segment if the active point is its initial point.
+	 * 
+	 * The points are sorted, so the order of the indices is the order of the
+	 * points. The same segment is found by each of its points, but only the
+	 * lowest one has an index lower than all the other points of the segment;
+	 * the segment is created only then, and no search of repeated segments is
+	 * needed. The final point is the one with the highest index.
 	 * 
 	 * @param consecutivePoints Number of consecutive points
-	 * @param activePoint       Point that is part of the line segment; is iterating
-	 *                          over it
-	 * @param points            Points ordered respect activePoint by the slope
-	 * @param begin             index where begin the points to form the line
-	 *                          segment
+	 * @param activePoint       Index of the point that is part of the line
+	 *                          segment; is iterating over it
+	 * @param points            Coordinates of the points, sorted
+	 * @param order             Indices of the points ordered respect activePoint
+	 *                          by the slope
+	 * @param begin             index of order where begin the points to form the
+	 *                          line segment
+	 * @param action            Action that receives the segment
 	 * 
 	 */
-	private void generateSegment(int consecutivePoints, Point activePoint, Point[] points, int begin) {
-
-		consecutivePoints++;
-
-		// Create the array will contain the points of the line segment
-		Point[] arraySegment = new Point[consecutivePoints];
-		arraySegment[0] = activePoint;
-
-		// Take the sub array
-		for (int i = 1; i < consecutivePoints; i++) {
-			arraySegment[i] = points[begin + i - 1];
-		}
-
-		// Sort the array by position
-		Arrays.sort(arraySegment);
-
-		// Take the initial and final point of the line segment
-		Point p = arraySegment[0];
-		Point q = arraySegment[consecutivePoints - 1];
-		boolean lineSegmentRepeated = false;
-
-		// Search for p and q repeated
-		if (pointsLineSegment.contains(p)) {
-			for (int i = 0; i < pointsLineSegment.size(); i += 2) {
-				if (pointsLineSegment.get(i) == p && pointsLineSegment.get(i + 1) == q) {
-					lineSegmentRepeated = true;
-					break;
-				}
+	private static void generateSegment(int consecutivePoints, int activePoint, PointCoordinates points, int[] order,
+			int begin, LineAction action) {
+
+		int last = activePoint;
+		for (int i = begin; i < begin + consecutivePoints; i++) {
+			// A lower point of the segment creates it
+			if (order[i] < activePoint) {
+				return;
 			}
+			last = Math.max(last, order[i]);
 		}
 
-		if (!lineSegmentRepeated) {
-			// Create the line segment taking the first and last element of the sub array
-			LineSegment ls = new LineSegment(arraySegment[0], arraySegment[consecutivePoints - 1]);
-			segments.add(ls);
-
-			// Save points that register the initial and end points of a line segment
-			pointsLineSegment.add(p);
-			pointsLineSegment.add(q);
-		}
+		action.found(points, activePoint, order, begin, consecutivePoints, last);
+	}
 
-		// TODO
-		
-		//FIXME Mejorar el tiempo de respueta y pasar de 95 a 100 en la evaluacin
-		// - Ver las siguientes sugerencias de los foros:  
-		// - How to get 100/100 grade? 
-		// - FastCollinearPoints passed 8by8 grid timing test but failed on nby1 grid test - 
-		// - 	First, you do not need to create a new class for tracking the index.
-		// - 	Secondly, In a normal process you will need to order the sub-array with the points "q1, q2,.....,qn" that have the same slope (reference to "p") to know if the point "p" is the lowest in segment. So, If you have the possibility to track the index of the points given, you can know if "p" is the lowest point of the segment without ordering the sub-array. This will low the time and the amount of compareTo() calls.
-		// - how to test the same segment?
+	/**
+	 * Return the number of line segments.
+	 * 
+	 * @return number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
 	}
 
 	/**
-	 * Method for check if a point is repeated; the array must be sorted.
+	 * Return the line segments.
 	 * 
-	 * @param points Points for check the segments.
+	 * @return line segments;
 	 */
-	private void checkForRepeatedPoints(Point[] points) {
-		for (int i = 0; i < points.length - 1; i++) {
-			if (points[i].compareTo(points[i + 1]) == 0)
-				throw new IllegalArgumentException("The points must not be repetead");
+	public LineSegment[] segments() {
+		LineSegment[] arrayLS = new LineSegment[segments.size()];
+		for (int i = 0; i < segments.size(); i++) {
+			arrayLS[i] = segments.get(i);
 		}
+
+		return arrayLS;
 	}
 
 	/**
-	 * Method for check if a point is repeated.
+	 * Action performed for each line found, with the indices of its points.
 	 * 
-	 * @param points Points for check the segments.
+	 * @author gabrielrodriguezj
+	 *
 	 */
-	private void checkForNullPoints(Point[] points) {
-		for (int i = 0; i < points.length; i++) {
-			if (points[i] == null)
-				throw new IllegalArgumentException("The points must not be null");
-		}
+	private interface LineAction {
+
+		/**
+		 * Receive a line whose lowest point is the origin.
+		 * 
+		 * @param points Coordinates of the points, sorted
+		 * @param origin Index of the origin point
+		 * @param order  Indices of the points ordered by the slope
+		 * @param begin  Index of order where begin the other points of the line
+		 * @param count  Number of other points of the line
+		 * @param last   Index of the final point of the line
+		 */
+		void found(PointCoordinates points, int origin, int[] order, int begin, int count, int last);
 	}
 
 	/**
-	 * Return the number of line segments.
+	 * Task that finds the segments of a range of origin points; a big range is
+	 * divided in two tasks, and the segments of the first half are placed before
+	 * the segments of the second half.
 	 * 
-	 * @return number of line segments
+	 * @author gabrielrodriguezj
+	 *
 	 */
-	public int numberOfSegments() {
-		return segments.size();
+	private static class OriginTask extends RecursiveTask<ArrayList<LineSegment>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Scratch arrays of each worker thread, reused by all the ranges that the
+		 * thread processes; they grow when a bigger set of points is processed.
+		 */
+		private static final ThreadLocal<SlopeSorter> SORTERS = ThreadLocal.withInitial(() -> new SlopeSorter(0));
+
+		/**
+		 * Coordinates of the points, sorted.
+		 */
+		private final PointCoordinates points;
+
+		/**
+		 * Minimum number of points of a line segment.
+		 */
+		private final int minPoints;
+
+		/**
+		 * First origin point.
+		 */
+		private final int from;
+
+		/**
+		 * Last origin point (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of origin points processed without dividing the range.
+		 */
+		private final int threshold;
+
+		/**
+		 * Constructor of the task for a range of origin points.
+		 * 
+		 * @param points    Coordinates of the points, sorted
+		 * @param minPoints Minimum number of points of a line segment
+		 * @param from      First origin point
+		 * @param to        Last origin point (exclusive)
+		 * @param threshold Maximum number of origin points without dividing
+		 */
+		OriginTask(PointCoordinates points, int minPoints, int from, int to, int threshold) {
+			this.points = points;
+			this.minPoints = minPoints;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		/**
+		 * Find the segments of the range, dividing it if it is big.
+		 */
+		@Override
+		protected ArrayList<LineSegment> compute() {
+			if (to - from <= threshold) {
+				ArrayList<LineSegment> segments = new ArrayList<>();
+				SlopeSorter sorter = SORTERS.get();
+				sorter.ensureCapacity(points.size());
+				findSegments(points, minPoints, from, to, sorter, segmentAction(segments::add));
+				return segments;
+			}
+
+			int middle = (from + to) >>> 1;
+			OriginTask second = new OriginTask(points, minPoints, middle, to, threshold);
+			second.fork();
+			ArrayList<LineSegment> segments = new OriginTask(points, minPoints, from, middle, threshold).compute();
+			segments.addAll(second.join());
+			return segments;
+		}
 	}
 
 	/**
-	 * Return the line segments.
+	 * Class that sorts the points by the slope they make with a origin point. The
+	 * slopes are computed once and saved as long keys that keep the order of the
+	 * doubles, then the keys are sorted together with the indices of the points
+	 * by a LSD radix sort; there are no comparators and no objects created. The
+	 * arrays are reused for every origin.
 	 * 
-	 * @return line segments;
+	 * @author gabrielrodriguezj
+	 *
 	 */
-	public LineSegment[] segments() {
-		LineSegment[] arrayLS = new LineSegment[segments.size()];
-		for (int i = 0; i < segments.size(); i++) {
-			arrayLS[i] = segments.get(i);
+	private static class SlopeSorter {
+
+		/**
+		 * Bits of each digit of the radix sort.
+		 */
+		private static final int BITS = 8;
+
+		/**
+		 * Number of different digits.
+		 */
+		private static final int RADIX = 1 << BITS;
+
+		/**
+		 * Sorted slope keys of the points, without the origin.
+		 */
+		private long[] keys;
+
+		/**
+		 * Indices of the points, in the order of the keys.
+		 */
+		private int[] order;
+
+		/**
+		 * Auxiliary array for the keys.
+		 */
+		private long[] auxKeys;
+
+		/**
+		 * Auxiliary array for the indices.
+		 */
+		private int[] auxOrder;
+
+		/**
+		 * Counter of each digit.
+		 */
+		private final int[] count;
+
+		/**
+		 * Constructor for a set of n points.
+		 * 
+		 * @param n Number of points
+		 */
+		SlopeSorter(int n) {
+			keys = new long[n];
+			order = new int[n];
+			auxKeys = new long[n];
+			auxOrder = new int[n];
+			count = new int[RADIX + 1];
 		}
 
-		return arrayLS;
+		/**
+		 * Grow the arrays, if they are smaller than n points.
+		 * 
+		 * @param n Number of points
+		 */
+		void ensureCapacity(int n) {
+			if (keys.length < n) {
+				keys = new long[n];
+				order = new int[n];
+				auxKeys = new long[n];
+				auxOrder = new int[n];
+			}
+		}
+
+		/**
+		 * Sort the points by the slope they make with the origin; the result is in
+		 * the arrays keys and order.
+		 * 
+		 * @param points Coordinates of the points
+		 * @param origin Index of the origin point
+		 * @return Number of points sorted, all except the origin
+		 */
+		int sort(PointCoordinates points, int origin) {
+			int n = 0;
+			for (int i = 0; i < points.size(); i++) {
+				if (i != origin) {
+					keys[n] = key(points.slope(origin, i));
+					order[n] = i;
+					n++;
+				}
+			}
+
+			for (int shift = 0; shift < Long.SIZE; shift += BITS) {
+				// Count the digits
+				Arrays.fill(count, 0);
+				for (int i = 0; i < n; i++) {
+					count[digit(keys[i], shift) + 1]++;
+				}
+
+				// All the keys have the same digit, the pass does not change the order
+				if (n == 0 || count[digit(keys[0], shift) + 1] == n) {
+					continue;
+				}
+
+				// Compute the position of each digit and distribute
+				for (int r = 0; r < RADIX; r++) {
+					count[r + 1] += count[r];
+				}
+				for (int i = 0; i < n; i++) {
+					int position = count[digit(keys[i], shift)]++;
+					auxKeys[position] = keys[i];
+					auxOrder[position] = order[i];
+				}
+
+				// The auxiliary arrays have the keys sorted until this digit
+				long[] tempKeys = keys;
+				keys = auxKeys;
+				auxKeys = tempKeys;
+				int[] tempOrder = order;
+				order = auxOrder;
+				auxOrder = tempOrder;
+			}
+
+			return n;
+		}
+
+		/**
+		 * Return the digit of a key that begins in the provided bit.
+		 * 
+		 * @param key   Key of a slope
+		 * @param shift Position of the first bit of the digit
+		 * @return Digit of the key
+		 */
+		private static int digit(long key, int shift) {
+			return (int) (key >>> shift) & (RADIX - 1);
+		}
+
+		/**
+		 * Convert a slope in a long whose unsigned order is the order of the
+		 * slopes: the bits of the negative values are inverted and the sign bit of
+		 * the positive values is set.
+		 * 
+		 * @param slope Slope between two points
+		 * @return Key of the slope
+		 */
+		private static long key(double slope) {
+			long bits = Double.doubleToLongBits(slope);
+			return bits ^ ((bits >> (Long.SIZE - 1)) | Long.MIN_VALUE);
+		}
 	}
 }
@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+
+/**
+ * Class that solve the same problem that the FastCollinearPoints class solve,
+ * but is a hashing-based solution. Given a point p, the other points are
+ * grouped by the slope they make with p in a hash table instead of sorting
+ * them, so each point takes expected linear time and the total expected time is
+ * proportional to n^2, without the log n factor of the sort.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class HashCollinearPoints {
+
+	/**
+	 * Line segments formed by 4 or more points.
+	 */
+	private final ArrayList<LineSegment> segments;
+
+	/**
+	 * Finds all line segments containing 4 or more points.
+	 *
+	 * The points are sorted by PointCoordinates, so the order of the indices is
+	 * the order of the points. For every point p, the other points are added to a
+	 * hash table by the slope they make with p; each slope keeps the number of
+	 * points and the lowest and highest indices. A slope with 3 or more points
+	 * forms a segment with p, and it is created only if p is lower than all the
+	 * points of the slope, so every segment is found once.
+	 *
+	 * @param points Array of points
+	 */
+	public HashCollinearPoints(Point[] points) {
+		this(new PointCoordinates(points));
+	}
+
+	/**
+	 * Finds all line segments containing 4 or more points of a set saved as
+	 * arrays of coordinates.
+	 *
+	 * @param points Coordinates of the points
+	 */
+	public HashCollinearPoints(PointCoordinates points) {
+
+		// Check if the argument is null
+		if (points == null)
+			throw new IllegalArgumentException("The points must not be null");
+
+		// Initialize the list of segments
+		segments = new ArrayList<>();
+
+		int n = points.size();
+		SlopeTable table = new SlopeTable(n);
+
+		for (int i = 0; i < n; i++) {
+
+			// Group the other points by the slope respect to the current point
+			table.clear();
+			for (int j = 0; j < n; j++) {
+				if (j != i) {
+					table.add(points.slope(i, j), j);
+				}
+			}
+
+			// Create the segments whose lowest point is the current point
+			for (int k = 0; k < table.size; k++) {
+				int slot = table.slots[k];
+				if (table.count[slot] >= 3 && table.lowest[slot] > i) {
+					CollinearMetrics.countSegment();
+					segments.add(new LineSegment(points.point(i), points.point(table.highest[slot])));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of line segments.
+	 *
+	 * @return number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
+	}
+
+	/**
+	 * Return the line segments.
+	 *
+	 * @return line segments;
+	 */
+	public LineSegment[] segments() {
+		return segments.toArray(new LineSegment[segments.size()]);
+	}
+
+	/**
+	 * Hash table with linear probing from the slopes to the number of points and
+	 * the lowest and highest indices of the points with that slope. The slopes of
+	 * different lines through the same point are different doubles, so the bits
+	 * of the double are an exact key. The table is reused for every origin point:
+	 * a slot belongs to the current origin only if its stamp is the current one,
+	 * so clearing the table takes constant time.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class SlopeTable {
+
+		/**
+		 * Bits of the slope of each slot.
+		 */
+		private final long[] keys;
+
+		/**
+		 * Number of points of each slot.
+		 */
+		private final int[] count;
+
+		/**
+		 * Lowest index of the points of each slot.
+		 */
+		private final int[] lowest;
+
+		/**
+		 * Highest index of the points of each slot.
+		 */
+		private final int[] highest;
+
+		/**
+		 * Origin that uses each slot.
+		 */
+		private final int[] stamps;
+
+		/**
+		 * Slots used by the current origin, in order of use.
+		 */
+		private final int[] slots;
+
+		/**
+		 * Number of slots used by the current origin.
+		 */
+		private int size;
+
+		/**
+		 * Stamp of the current origin.
+		 */
+		private int stamp;
+
+		/**
+		 * Constructor for a set of n points; the table has at most half of the
+		 * slots used.
+		 *
+		 * @param n Number of points
+		 */
+		SlopeTable(int n) {
+			int capacity = Integer.highestOneBit(Math.max(2, 2 * n - 1)) << 1;
+			keys = new long[capacity];
+			count = new int[capacity];
+			lowest = new int[capacity];
+			highest = new int[capacity];
+			stamps = new int[capacity];
+			slots = new int[n];
+			size = 0;
+			stamp = 0;
+		}
+
+		/**
+		 * Release all the slots for a new origin point.
+		 */
+		void clear() {
+			stamp++;
+			size = 0;
+		}
+
+		/**
+		 * Add a point to the slot of its slope.
+		 *
+		 * @param slope Slope of the point respect to the origin
+		 * @param index Index of the point
+		 */
+		void add(double slope, int index) {
+			long key = Double.doubleToLongBits(slope);
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+
+			while (stamps[slot] == stamp) {
+				if (keys[slot] == key) {
+					count[slot]++;
+					lowest[slot] = Math.min(lowest[slot], index);
+					highest[slot] = Math.max(highest[slot], index);
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			// First point with this slope
+			stamps[slot] = stamp;
+			keys[slot] = key;
+			count[slot] = 1;
+			lowest[slot] = index;
+			highest[slot] = index;
+			slots[size++] = slot;
+		}
+
+		/**
+		 * Mix the bits of a key, the close slopes differ only in the low bits.
+		 *
+		 * @param key Bits of a slope
+		 * @return Hash of the key
+		 */
+		private static int hash(long key) {
+			key ^= key >>> 33;
+			key *= 0xff51afd7ed558ccdL;
+			key ^= key >>> 33;
+			return (int) key;
+		}
+	}
+}
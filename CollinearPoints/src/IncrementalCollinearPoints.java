@@ -0,0 +1,216 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Class that keeps the line segments of a set of points that grows one point at
+ * a time. When a point is added, only the lines through the new point can
+ * change, so the other points are sorted by the slope they make with the new
+ * point: a group of minPoints - 1 points with the same slope forms a new
+ * segment, and a bigger group extends a segment that already exists. Adding a
+ * point takes time proportional to n log n, instead of running
+ * FastCollinearPoints over all the points again.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class IncrementalCollinearPoints {
+
+	/**
+	 * Minimum number of points of a line segment by default.
+	 */
+	private static final int NUMBER_POINTS_SEGMENT = 4;
+
+	/**
+	 * Initial capacity of the array of points.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Minimum number of points of a line segment.
+	 */
+	private final int minPoints;
+
+	/**
+	 * Points added, in order of insertion.
+	 */
+	private Point[] points;
+
+	/**
+	 * Number of points added.
+	 */
+	private int size;
+
+	/**
+	 * Scratch array for sort the points by slope, reused for every insertion.
+	 */
+	private Point[] aux;
+
+	/**
+	 * Line segments found, by the line that contains them.
+	 */
+	private final HashMap<LineKey, Line> lines;
+
+	/**
+	 * Constructs an empty set that finds the line segments containing 4 or more
+	 * points.
+	 */
+	public IncrementalCollinearPoints() {
+		this(NUMBER_POINTS_SEGMENT);
+	}
+
+	/**
+	 * Constructs an empty set that finds the line segments containing minPoints
+	 * or more points.
+	 *
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 */
+	public IncrementalCollinearPoints(int minPoints) {
+		if (minPoints < 2)
+			throw new IllegalArgumentException("A line segment has at least 2 points");
+
+		this.minPoints = minPoints;
+		this.points = new Point[INITIAL_CAPACITY];
+		this.aux = new Point[INITIAL_CAPACITY];
+		this.size = 0;
+		this.lines = new HashMap<>();
+	}
+
+	/**
+	 * Add a point to the set and update the line segments that pass through it.
+	 *
+	 * @param p Point to add
+	 */
+	public void add(Point p) {
+		if (p == null)
+			throw new IllegalArgumentException("The point must not be null");
+
+		// Sort the other points by the slope respect to the new point; a repeated
+		// point has the lowest slope, so it is at the beginning
+		Comparator<Point> slopeOrder = p.slopeOrder();
+		System.arraycopy(points, 0, aux, 0, size);
+		long start = CollinearMetrics.startSort();
+		Arrays.sort(aux, 0, size, slopeOrder);
+		CollinearMetrics.endSort(start);
+		if (size > 0 && p.compareTo(aux[0]) == 0)
+			throw new IllegalArgumentException("The points must not be repetead");
+
+		// Look for minPoints - 1 or more consecutive points with the same slope
+		int beginSubArray = 0;
+		for (int j = 1; j <= size; j++) {
+			if (j == size || slopeOrder.compare(aux[j], aux[beginSubArray]) != 0) {
+				int consecutivePoints = j - beginSubArray;
+				if (consecutivePoints >= minPoints - 1) {
+					updateLine(p, beginSubArray, j);
+				}
+				beginSubArray = j;
+			}
+		}
+
+		// Save the point, doubling the arrays when they are full
+		if (size == points.length) {
+			points = Arrays.copyOf(points, 2 * size);
+			aux = new Point[2 * size];
+		}
+		points[size++] = p;
+	}
+
+	/**
+	 * Method for create or extend the line segment formed by the new point and a
+	 * group of points with the same slope.
+	 *
+	 * @param p     New point
+	 * @param begin Index of aux where begin the group
+	 * @param end   Index of aux where end the group (exclusive)
+	 */
+	private void updateLine(Point p, int begin, int end) {
+		LineKey key = new LineKey(p, aux[begin]);
+		Line line = lines.get(key);
+
+		// The line already had minPoints points, only the end points can change
+		if (line != null) {
+			line.add(p);
+			return;
+		}
+
+		line = new Line(p);
+		for (int k = begin; k < end; k++) {
+			line.add(aux[k]);
+		}
+		CollinearMetrics.countSegment();
+		lines.put(key, line);
+	}
+
+	/**
+	 * Return the number of points added.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the number of line segments.
+	 *
+	 * @return number of line segments
+	 */
+	public int numberOfSegments() {
+		return lines.size();
+	}
+
+	/**
+	 * Return the line segments of the points added until now.
+	 *
+	 * @return line segments;
+	 */
+	public LineSegment[] segments() {
+		LineSegment[] segments = new LineSegment[lines.size()];
+		int i = 0;
+		for (Line line : lines.values()) {
+			segments[i++] = new LineSegment(line.lowest, line.highest);
+		}
+		return segments;
+	}
+
+	/**
+	 * End points of a line segment.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class Line {
+
+		/**
+		 * Lowest point of the segment.
+		 */
+		private Point lowest;
+
+		/**
+		 * Highest point of the segment.
+		 */
+		private Point highest;
+
+		/**
+		 * Constructor of a segment with only one point.
+		 *
+		 * @param p Point of the segment
+		 */
+		Line(Point p) {
+			lowest = p;
+			highest = p;
+		}
+
+		/**
+		 * Add a point of the line to the segment.
+		 *
+		 * @param p Point of the line
+		 */
+		void add(Point p) {
+			if (p.compareTo(lowest) < 0)
+				lowest = p;
+			if (p.compareTo(highest) > 0)
+				highest = p;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * Exact representation of the line a*x + b*y = c through two points, with the
+ * coefficients divided by their greatest common divisor and the sign fixed,
+ * so every pair of points of the same line has the same key.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+final class LineKey {
+
+	/**
+	 * Coefficient of x.
+	 */
+	private final long a;
+
+	/**
+	 * Coefficient of y.
+	 */
+	private final long b;
+
+	/**
+	 * Constant term.
+	 */
+	private final long c;
+
+	/**
+	 * Constructor of the key of the line through two different points.
+	 *
+	 * @param p First point
+	 * @param q Second point
+	 */
+	LineKey(Point p, Point q) {
+		long a = (long) q.y() - p.y();
+		long b = (long) p.x() - q.x();
+		long gcd = gcd(Math.abs(a), Math.abs(b));
+		a /= gcd;
+		b /= gcd;
+		if (a < 0 || (a == 0 && b < 0)) {
+			a = -a;
+			b = -b;
+		}
+		this.a = a;
+		this.b = b;
+		this.c = a * p.x() + b * p.y();
+	}
+
+	/**
+	 * Greatest common divisor of two non-negative numbers.
+	 *
+	 * @param m First number
+	 * @param n Second number
+	 * @return Greatest common divisor
+	 */
+	private static long gcd(long m, long n) {
+		while (n != 0) {
+			long r = m % n;
+			m = n;
+			n = r;
+		}
+		return m;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof LineKey))
+			return false;
+		LineKey that = (LineKey) other;
+		return a == that.a && b == that.b && c == that.c;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(31 * (31 * a + b) + c);
+	}
+}
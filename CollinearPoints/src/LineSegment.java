@@ -31,6 +31,24 @@ public class LineSegment {
 		this.q = q;
 	}
 
+	/**
+	 * Return the first point.
+	 * 
+	 * @return First point
+	 */
+	Point p() {
+		return p;
+	}
+
+	/**
+	 * Return the second point.
+	 * 
+	 * @return Second point
+	 */
+	Point q() {
+		return q;
+	}
+
 	/**
 	 * Draws this line segment.
 	 */
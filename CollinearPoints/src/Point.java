@@ -29,6 +29,24 @@ public class Point implements Comparable<Point> {
 		this.y = y;
 	}
 
+	/**
+	 * Return the x-coordinate of the point.
+	 * 
+	 * @return X-coordinate
+	 */
+	int x() {
+		return x;
+	}
+
+	/**
+	 * Return the y-coordinate of the point.
+	 * 
+	 * @return Y-coordinate
+	 */
+	int y() {
+		return y;
+	}
+
 	/**
 	 * Draws this point.
 	 */
@@ -56,6 +74,7 @@ public class Point implements Comparable<Point> {
 	 * Compare two points by y-coordinates, breaking ties by x-coordinates.
 	 */
 	public int compareTo(Point that) {
+		CollinearMetrics.countCompareTo();
 		if (this.y < that.y)
 			return -1;
 		if (this.y > that.y)
@@ -77,14 +96,30 @@ public class Point implements Comparable<Point> {
 	 * @return Slope between this point and that point.
 	 */
 	public double slopeTo(Point that) {
+		return slope(this.x, this.y, that.x, that.y);
+	}
+
+	/**
+	 * Calculate the slope between the points (x0, y0) and (x1, y1), with the same
+	 * rules of slopeTo(). Allows to work with the coordinates without Point
+	 * objects.
+	 * 
+	 * @param x0 X-coordinate of the first point
+	 * @param y0 Y-coordinate of the first point
+	 * @param x1 X-coordinate of the second point
+	 * @param y1 Y-coordinate of the second point
+	 * @return Slope between the two points.
+	 */
+	static double slope(int x0, int y0, int x1, int y1) {
+		CollinearMetrics.countSlope();
 
 		// Degenerate line segment
-		if (this.compareTo(that) == 0) {
+		if (x0 == x1 && y0 == y1) {
 			return Double.NEGATIVE_INFINITY;
 		}
 
-		double dividend = that.y - this.y;
-		double divisor = that.x - this.x;
+		double dividend = y1 - y0;
+		double divisor = x1 - x0;
 
 		// Horizontal line segment
 		if (dividend == 0) {
@@ -110,29 +145,77 @@ public class Point implements Comparable<Point> {
 
 	/**
 	 * Class for implementing the Point's comparator. Compare by the slopes formed
-	 * by the points.
+	 * by the points, with the same order of slopeTo() but using exact integer
+	 * arithmetic: the slopes are compared by cross-multiplication, without
+	 * divisions, floating point values or new objects.
 	 * 
 	 * @author gabrielrodriguezj
 	 *
 	 */
 	private class SlopeCompare implements Comparator<Point> {
 
+		/**
+		 * Kind of slope of a degenerate line segment.
+		 */
+		private static final int DEGENERATE = 0;
+
+		/**
+		 * Kind of slope of a line segment that is not vertical.
+		 */
+		private static final int FINITE = 1;
+
+		/**
+		 * Kind of slope of a vertical line segment.
+		 */
+		private static final int VERTICAL = 2;
+
 		/**
 		 * Implementation of the method for comparing the slopes of the Point p and q
 		 * with respect to "this" Point.
 		 */
 		@Override
 		public int compare(Point p, Point q) {
-			Point current = new Point(x, y);
-			double slopeWithP = current.slopeTo(p);
-			double slopeWithQ = current.slopeTo(q);
-
-			if (slopeWithP < slopeWithQ)
-				return -1;
-			if (slopeWithP > slopeWithQ)
-				return 1;
-			return 0;
+			CollinearMetrics.countComparator();
+			long dxP = p.x - x;
+			long dyP = p.y - y;
+			long dxQ = q.x - x;
+			long dyQ = q.y - y;
+
+			// Degenerate, finite and vertical slopes, in that order
+			int kindP = slopeKind(dxP, dyP);
+			int kindQ = slopeKind(dxQ, dyQ);
+			if (kindP != kindQ)
+				return kindP < kindQ ? -1 : 1;
+			if (kindP != FINITE)
+				return 0;
+
+			// Turn the divisors positive, the slopes do not change
+			if (dxP < 0) {
+				dxP = -dxP;
+				dyP = -dyP;
+			}
+			if (dxQ < 0) {
+				dxQ = -dxQ;
+				dyQ = -dyQ;
+			}
+
+			// dyP / dxP < dyQ / dxQ if and only if dyP * dxQ < dyQ * dxP
+			return Long.compare(dyP * dxQ, dyQ * dxP);
 		}
 
+		/**
+		 * Method that return the kind of slope of a line segment.
+		 *
+		 * @param dx Difference of the x-coordinates.
+		 * @param dy Difference of the y-coordinates.
+		 * @return DEGENERATE, FINITE or VERTICAL.
+		 */
+		private int slopeKind(long dx, long dy) {
+			if (dx != 0)
+				return FINITE;
+			if (dy != 0)
+				return VERTICAL;
+			return DEGENERATE;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Immutable set of points saved as two arrays of coordinates, sorted in the
+ * order of Point.compareTo() (by y-coordinate, breaking ties by x-coordinate).
+ * The collinear algorithms work over this representation: an array of n Point
+ * objects costs an object header and a reference per point, and every access
+ * follows a reference; the coordinates arrays are compact and are read in
+ * order. Point objects are only created for the public API.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class PointCoordinates {
+
+	/**
+	 * X-coordinates of the points, in order.
+	 */
+	private final int[] xs;
+
+	/**
+	 * Y-coordinates of the points, in order.
+	 */
+	private final int[] ys;
+
+	/**
+	 * Constructs the set from an array of points.
+	 *
+	 * @param points Array of points
+	 */
+	public PointCoordinates(Point[] points) {
+		this(keys(points));
+	}
+
+	/**
+	 * Constructs the set from the coordinates of the points; the point i is
+	 * (xs[i], ys[i]).
+	 *
+	 * @param xs X-coordinates of the points
+	 * @param ys Y-coordinates of the points
+	 */
+	public PointCoordinates(int[] xs, int[] ys) {
+		this(keys(xs, ys));
+	}
+
+	/**
+	 * Constructs the set from the keys of the points.
+	 *
+	 * @param keys Keys of the points, see key()
+	 */
+	private PointCoordinates(long[] keys) {
+		// The order of the keys is the order of the points; a primitive sort
+		Arrays.sort(keys);
+
+		// Check for repeated points
+		for (int i = 0; i < keys.length - 1; i++) {
+			if (keys[i] == keys[i + 1])
+				throw new IllegalArgumentException("The points must not be repetead");
+		}
+
+		xs = new int[keys.length];
+		ys = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			xs[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+			ys[i] = (int) (keys[i] >> Integer.SIZE);
+		}
+	}
+
+	/**
+	 * Return the number of points.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * Return the x-coordinate of a point.
+	 *
+	 * @param i Index of the point
+	 * @return X-coordinate of the point
+	 */
+	public int x(int i) {
+		return xs[i];
+	}
+
+	/**
+	 * Return the y-coordinate of a point.
+	 *
+	 * @param i Index of the point
+	 * @return Y-coordinate of the point
+	 */
+	public int y(int i) {
+		return ys[i];
+	}
+
+	/**
+	 * Calculate the slope between two points, with the rules of Point.slopeTo().
+	 *
+	 * @param i Index of the first point
+	 * @param j Index of the second point
+	 * @return Slope between the points
+	 */
+	public double slope(int i, int j) {
+		return Point.slope(xs[i], ys[i], xs[j], ys[j]);
+	}
+
+	/**
+	 * Create a Point object for a point.
+	 *
+	 * @param i Index of the point
+	 * @return Point i
+	 */
+	public Point point(int i) {
+		return new Point(xs[i], ys[i]);
+	}
+
+	/**
+	 * Method that return the keys of an array of points.
+	 *
+	 * @param points Array of points
+	 * @return Keys of the points
+	 */
+	private static long[] keys(Point[] points) {
+
+		// Check if the argument is null
+		if (points == null)
+			throw new IllegalArgumentException("The points array must not be null");
+
+		long[] keys = new long[points.length];
+		for (int i = 0; i < points.length; i++) {
+			// Check for null points
+			if (points[i] == null)
+				throw new IllegalArgumentException("The points must not be null");
+
+			keys[i] = key(points[i].x(), points[i].y());
+		}
+		return keys;
+	}
+
+	/**
+	 * Method that return the keys of the coordinates of the points.
+	 *
+	 * @param xs X-coordinates of the points
+	 * @param ys Y-coordinates of the points
+	 * @return Keys of the points
+	 */
+	private static long[] keys(int[] xs, int[] ys) {
+		if (xs == null || ys == null || xs.length != ys.length)
+			throw new IllegalArgumentException("The coordinates arrays must have the same length");
+
+		long[] keys = new long[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			keys[i] = key(xs[i], ys[i]);
+		}
+		return keys;
+	}
+
+	/**
+	 * Pack the coordinates of a point in a long, whose order is the order of
+	 * Point.compareTo(): the y-coordinate in the high bits and the x-coordinate,
+	 * with the sign bit inverted, in the low bits.
+	 *
+	 * @param x X-coordinate of the point
+	 * @param y Y-coordinate of the point
+	 * @return Key of the point
+	 */
+	private static long key(int x, int y) {
+		return ((long) y << Integer.SIZE) | ((x ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+}
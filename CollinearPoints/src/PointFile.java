@@ -0,0 +1,155 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import edu.princeton.cs.algs4.In;
+
+/**
+ * Class for read and write the points in a compact binary format. The
+ * coordinates are between 0 and 32,767, so each one fits in a short: the file
+ * contains the magic number 0x50545331 ("PTS1"), the number of points n as an
+ * int, and n pairs of shorts (x, y), all in big-endian order. The files are read
+ * through a memory mapping, without parsing text.
+ *
+ * The main method converts a file in the text format (an integer n, followed by
+ * n pairs of integers) to the binary format.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class PointFile {
+
+	/**
+	 * Magic number at the beginning of the binary files.
+	 */
+	private static final int MAGIC = 0x50545331;
+
+	/**
+	 * Size in bytes of the header: magic number and number of points.
+	 */
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+	/**
+	 * Maximum value of a coordinate.
+	 */
+	private static final int MAX_COORDINATE = 32767;
+
+	/**
+	 * Only static methods.
+	 */
+	private PointFile() {
+	}
+
+	/**
+	 * Read the points of a binary file.
+	 *
+	 * @param fileName Name of the binary file
+	 * @return Points of the file
+	 */
+	public static Point[] readPoints(String fileName) {
+		int[][] coordinates = readCoordinates(fileName);
+		int[] xs = coordinates[0];
+		int[] ys = coordinates[1];
+
+		Point[] points = new Point[xs.length];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new Point(xs[i], ys[i]);
+		}
+		return points;
+	}
+
+	/**
+	 * Read the coordinates of the points of a binary file, without creating Point
+	 * objects.
+	 *
+	 * @param fileName Name of the binary file
+	 * @return Array with the x-coordinates in the position 0 and the
+	 *         y-coordinates in the position 1
+	 */
+	public static int[][] readCoordinates(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("The file " + fileName + " is not a binary points file");
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+			if (buffer.getInt(0) != MAGIC)
+				throw new IllegalArgumentException("The file " + fileName + " is not a binary points file");
+
+			int n = buffer.getInt(Integer.BYTES);
+			if (n < 0 || fileSize != HEADER_SIZE + 2L * Short.BYTES * n)
+				throw new IllegalArgumentException("The size of the file " + fileName + " does not match its points");
+
+			int[] xs = new int[n];
+			int[] ys = new int[n];
+			int position = HEADER_SIZE;
+			for (int i = 0; i < n; i++) {
+				xs[i] = buffer.getShort(position);
+				ys[i] = buffer.getShort(position + Short.BYTES);
+				position += 2 * Short.BYTES;
+			}
+
+			return new int[][] { xs, ys };
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not read the file " + fileName, e);
+		}
+	}
+
+	/**
+	 * Write the coordinates of the points in a binary file.
+	 *
+	 * @param fileName Name of the binary file
+	 * @param xs       X-coordinates of the points
+	 * @param ys       Y-coordinates of the points
+	 */
+	public static void write(String fileName, int[] xs, int[] ys) {
+		if (xs == null || ys == null || xs.length != ys.length)
+			throw new IllegalArgumentException("The coordinates arrays must have the same length");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(xs.length);
+			for (int i = 0; i < xs.length; i++) {
+				checkCoordinate(xs[i]);
+				checkCoordinate(ys[i]);
+				out.writeShort(xs[i]);
+				out.writeShort(ys[i]);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not write the file " + fileName, e);
+		}
+	}
+
+	/**
+	 * Method for check if a coordinate fits in the binary format.
+	 *
+	 * @param coordinate Coordinate of a point
+	 */
+	private static void checkCoordinate(int coordinate) {
+		if (coordinate < 0 || coordinate > MAX_COORDINATE)
+			throw new IllegalArgumentException("The coordinates must be between 0 and " + MAX_COORDINATE);
+	}
+
+	/**
+	 * Convert a file in the text format to the binary format.
+	 *
+	 * @param args Name of the text file and name of the binary file
+	 */
+	public static void main(String[] args) {
+		In in = new In(args[0]);
+		int n = in.readInt();
+		int[] xs = new int[n];
+		int[] ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = in.readInt();
+			ys[i] = in.readInt();
+		}
+
+		write(args[1], xs, ys);
+	}
+}
@@ -0,0 +1,443 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class that finds the local line segments of a set of points, for inputs
+ * where the segments are short compared with the plane, like clustered scans.
+ * A local segment is a set of minPoints or more collinear points whose end
+ * points are at most maxLength apart; the local segments of the same line that
+ * share points are joined, so the result are the maximal chains of local
+ * segments. If maxLength is bigger than the size of the plane, the result is
+ * the same of FastCollinearPoints.
+ *
+ * The plane is divided in square tiles of side at least maxLength, and every
+ * tile is extended by maxLength to the left, to the right and to the top, so
+ * every local segment is inside the extended tile of its lowest point. The
+ * tiles are searched in parallel with FastCollinearPoints, and the pieces of
+ * the same line found in different tiles are joined at the end. The work is
+ * quadratic in the points of each tile instead of in all the points.
+ *
+ * @author gabrielrodriguezj
+ *
+ */
+public class TiledCollinearPoints {
+
+	/**
+	 * Minimum number of points of a line segment by default.
+	 */
+	private static final int NUMBER_POINTS_SEGMENT = 4;
+
+	/**
+	 * Average number of points of a tile, when maxLength allows it.
+	 */
+	private static final int POINTS_PER_TILE = 1024;
+
+	/**
+	 * Line segments found.
+	 */
+	private final ArrayList<LineSegment> segments;
+
+	/**
+	 * Finds all the local line segments containing 4 or more points.
+	 *
+	 * @param points    Array of points
+	 * @param maxLength Maximum distance between the end points of a local segment
+	 */
+	public TiledCollinearPoints(Point[] points, int maxLength) {
+		this(new PointCoordinates(points), NUMBER_POINTS_SEGMENT, maxLength);
+	}
+
+	/**
+	 * Finds all the local line segments containing minPoints or more points of a
+	 * set saved as arrays of coordinates.
+	 *
+	 * @param points    Coordinates of the points
+	 * @param minPoints Minimum number of points of a line segment, at least 2
+	 * @param maxLength Maximum distance between the end points of a local
+	 *                  segment, positive
+	 */
+	public TiledCollinearPoints(PointCoordinates points, int minPoints, int maxLength) {
+
+		// Check the arguments
+		if (points == null)
+			throw new IllegalArgumentException("The points must not be null");
+		if (minPoints < 2)
+			throw new IllegalArgumentException("A line segment has at least 2 points");
+		if (maxLength <= 0)
+			throw new IllegalArgumentException("The maximum length must be positive");
+
+		segments = new ArrayList<>();
+		if (points.size() == 0)
+			return;
+
+		// Find the pieces of every tile in parallel
+		Tiles tiles = new Tiles(points, maxLength);
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int threshold = Math.max(1, tiles.count() / (8 * pool.getParallelism()));
+		ArrayList<Piece> pieces = pool.invoke(new TileTask(tiles, minPoints, (long) maxLength * maxLength,
+				0, tiles.count(), threshold));
+
+		// Join the pieces of the same line
+		HashMap<LineKey, ArrayList<Piece>> lines = new HashMap<>();
+		for (Piece piece : pieces) {
+			lines.computeIfAbsent(piece.key, key -> new ArrayList<>()).add(piece);
+		}
+		for (ArrayList<Piece> line : lines.values()) {
+			stitch(line, segments);
+		}
+	}
+
+	/**
+	 * Return the number of line segments.
+	 *
+	 * @return number of line segments
+	 */
+	public int numberOfSegments() {
+		return segments.size();
+	}
+
+	/**
+	 * Return the line segments.
+	 *
+	 * @return line segments;
+	 */
+	public LineSegment[] segments() {
+		return segments.toArray(new LineSegment[segments.size()]);
+	}
+
+	/**
+	 * Method to find the pieces of a tile. For every line of the tile, a window
+	 * moves over the points of the line, sorted, and every window of minPoints
+	 * or more points not longer than maxLength is a local segment; the windows
+	 * that share points form a piece.
+	 *
+	 * @param tile      Coordinates of the points of the extended tile
+	 * @param minPoints Minimum number of points of a line segment
+	 * @param maxLength Square of the maximum length of a local segment
+	 * @param pieces    List that receives the pieces
+	 */
+	private static void findPieces(PointCoordinates tile, int minPoints, long maxLength, ArrayList<Piece> pieces) {
+		FastCollinearPoints.forEachLine(tile, minPoints, line -> {
+			LineKey key = new LineKey(line[0], line[1]);
+			int begin = -1;
+			int end = -1;
+			int last = 0;
+			for (int first = 0; first + minPoints <= line.length; first++) {
+				// Longest window from the point first
+				last = Math.max(last, first);
+				while (last + 1 < line.length && squaredDistance(line[first], line[last + 1]) <= maxLength) {
+					last++;
+				}
+				if (last - first + 1 < minPoints)
+					continue;
+
+				// Join the window with the current piece if they share points
+				if (begin >= 0 && first <= end) {
+					end = last;
+				} else {
+					if (begin >= 0)
+						pieces.add(new Piece(key, line[begin], line[end]));
+					begin = first;
+					end = last;
+				}
+			}
+			if (begin >= 0)
+				pieces.add(new Piece(key, line[begin], line[end]));
+		});
+	}
+
+	/**
+	 * Method to join the pieces of the same line that share points, adding a
+	 * segment for every group.
+	 *
+	 * @param line     Pieces of a line
+	 * @param segments List that receives the segments
+	 */
+	private static void stitch(ArrayList<Piece> line, ArrayList<LineSegment> segments) {
+		line.sort((a, b) -> a.lowest.compareTo(b.lowest));
+
+		Point lowest = line.get(0).lowest;
+		Point highest = line.get(0).highest;
+		for (int i = 1; i < line.size(); i++) {
+			Piece piece = line.get(i);
+			if (piece.lowest.compareTo(highest) <= 0) {
+				if (piece.highest.compareTo(highest) > 0)
+					highest = piece.highest;
+			} else {
+				CollinearMetrics.countSegment();
+				segments.add(new LineSegment(lowest, highest));
+				lowest = piece.lowest;
+				highest = piece.highest;
+			}
+		}
+		CollinearMetrics.countSegment();
+		segments.add(new LineSegment(lowest, highest));
+	}
+
+	/**
+	 * Square of the distance between two points.
+	 *
+	 * @param p First point
+	 * @param q Second point
+	 * @return Square of the distance
+	 */
+	private static long squaredDistance(Point p, Point q) {
+		long dx = (long) q.x() - p.x();
+		long dy = (long) q.y() - p.y();
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Part of a line found in a tile, from its lowest to its highest point.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class Piece {
+
+		/**
+		 * Line of the piece.
+		 */
+		private final LineKey key;
+
+		/**
+		 * Lowest point of the piece.
+		 */
+		private final Point lowest;
+
+		/**
+		 * Highest point of the piece.
+		 */
+		private final Point highest;
+
+		/**
+		 * Constructor of a piece.
+		 *
+		 * @param key     Line of the piece
+		 * @param lowest  Lowest point of the piece
+		 * @param highest Highest point of the piece
+		 */
+		Piece(LineKey key, Point lowest, Point highest) {
+			this.key = key;
+			this.lowest = lowest;
+			this.highest = highest;
+		}
+	}
+
+	/**
+	 * Division of the points in extended tiles. The indices of the points of
+	 * every tile are saved together in one array, with the position where every
+	 * tile begins.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class Tiles {
+
+		/**
+		 * Coordinates of all the points.
+		 */
+		private final PointCoordinates points;
+
+		/**
+		 * Indices of the points of every tile, one tile after the other.
+		 */
+		private final int[] members;
+
+		/**
+		 * Position of members where every tile begins; the last position is the
+		 * end of the last tile.
+		 */
+		private final int[] starts;
+
+		/**
+		 * Constructor of the tiles for a set of points.
+		 *
+		 * @param points    Coordinates of the points, not empty
+		 * @param maxLength Maximum length of a local segment
+		 */
+		Tiles(PointCoordinates points, int maxLength) {
+			this.points = points;
+			int n = points.size();
+
+			// Bounds of the points
+			int minX = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE;
+			for (int i = 0; i < n; i++) {
+				minX = Math.min(minX, points.x(i));
+				maxX = Math.max(maxX, points.x(i));
+			}
+			int minY = points.y(0);
+			int maxY = points.y(n - 1);
+
+			// Side of the tiles, so a tile has about POINTS_PER_TILE points
+			long width = (long) maxX - minX + 1;
+			long height = (long) maxY - minY + 1;
+			long perSide = Math.max(1, (long) Math.sqrt((double) n / POINTS_PER_TILE));
+			long side = Math.max(maxLength, (Math.max(width, height) + perSide - 1) / perSide);
+			int columns = (int) ((width + side - 1) / side);
+			int rows = (int) ((height + side - 1) / side);
+
+			// Count the points of every extended tile, then save them
+			starts = new int[columns * rows + 1];
+			for (int i = 0; i < n; i++) {
+				place(i, minX, minY, side, columns, maxLength, starts, null);
+			}
+			for (int t = 0; t < columns * rows; t++) {
+				starts[t + 1] += starts[t];
+			}
+			members = new int[starts[columns * rows]];
+			int[] next = starts.clone();
+			for (int i = 0; i < n; i++) {
+				place(i, minX, minY, side, columns, maxLength, next, members);
+			}
+		}
+
+		/**
+		 * Method for count or save a point in every extended tile that contains
+		 * it. The tile of a row and a column contains the points with the
+		 * x-coordinate in [column * side - maxLength, (column + 1) * side +
+		 * maxLength) and the y-coordinate in [row * side, (row + 1) * side +
+		 * maxLength), relative to the lowest coordinates.
+		 *
+		 * @param i         Index of the point
+		 * @param minX      Lowest x-coordinate
+		 * @param minY      Lowest y-coordinate
+		 * @param side      Side of the tiles
+		 * @param columns   Number of columns of tiles
+		 * @param maxLength Maximum length of a local segment
+		 * @param next      Counter of every tile (shifted by one position) or next
+		 *                  free position of every tile in saved
+		 * @param saved     Array for save the point, or null for count it
+		 */
+		private void place(int i, int minX, int minY, long side, int columns, int maxLength, int[] next,
+				int[] saved) {
+			long x = (long) points.x(i) - minX;
+			long y = (long) points.y(i) - minY;
+			int firstColumn = (int) Math.max(0, Math.floorDiv(x - maxLength, side));
+			int lastColumn = (int) Math.min(columns - 1, (x + maxLength) / side);
+			int firstRow = (int) Math.max(0, Math.floorDiv(y - maxLength, side));
+			int lastRow = (int) (y / side);
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					int tile = row * columns + column;
+					if (saved == null)
+						next[tile + 1]++;
+					else
+						saved[next[tile]++] = i;
+				}
+			}
+		}
+
+		/**
+		 * Return the number of tiles.
+		 *
+		 * @return number of tiles
+		 */
+		int count() {
+			return starts.length - 1;
+		}
+
+		/**
+		 * Return the coordinates of the points of an extended tile.
+		 *
+		 * @param tile Index of the tile
+		 * @return Coordinates of the points of the tile
+		 */
+		PointCoordinates tile(int tile) {
+			int size = starts[tile + 1] - starts[tile];
+			int[] xs = new int[size];
+			int[] ys = new int[size];
+			for (int k = 0; k < size; k++) {
+				int i = members[starts[tile] + k];
+				xs[k] = points.x(i);
+				ys[k] = points.y(i);
+			}
+			return new PointCoordinates(xs, ys);
+		}
+	}
+
+	/**
+	 * Task that finds the pieces of a range of tiles; a big range is divided in
+	 * two tasks.
+	 *
+	 * @author gabrielrodriguezj
+	 *
+	 */
+	private static class TileTask extends RecursiveTask<ArrayList<Piece>> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Tiles of the points.
+		 */
+		private final Tiles tiles;
+
+		/**
+		 * Minimum number of points of a line segment.
+		 */
+		private final int minPoints;
+
+		/**
+		 * Square of the maximum length of a local segment.
+		 */
+		private final long maxLength;
+
+		/**
+		 * First tile.
+		 */
+		private final int from;
+
+		/**
+		 * Last tile (exclusive).
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of tiles processed without dividing the range.
+		 */
+		private final int threshold;
+
+		/**
+		 * Constructor of the task for a range of tiles.
+		 *
+		 * @param tiles     Tiles of the points
+		 * @param minPoints Minimum number of points of a line segment
+		 * @param maxLength Square of the maximum length of a local segment
+		 * @param from      First tile
+		 * @param to        Last tile (exclusive)
+		 * @param threshold Maximum number of tiles without dividing
+		 */
+		TileTask(Tiles tiles, int minPoints, long maxLength, int from, int to, int threshold) {
+			this.tiles = tiles;
+			this.minPoints = minPoints;
+			this.maxLength = maxLength;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		/**
+		 * Find the pieces of the range, dividing it if it is big.
+		 */
+		@Override
+		protected ArrayList<Piece> compute() {
+			if (to - from <= threshold) {
+				ArrayList<Piece> pieces = new ArrayList<>();
+				for (int tile = from; tile < to; tile++) {
+					findPieces(tiles.tile(tile), minPoints, maxLength, pieces);
+				}
+				return pieces;
+			}
+
+			int middle = (from + to) >>> 1;
+			TileTask second = new TileTask(tiles, minPoints, maxLength, middle, to, threshold);
+			second.fork();
+			ArrayList<Piece> pieces = new TileTask(tiles, minPoints, maxLength, from, middle, threshold).compute();
+			pieces.addAll(second.join());
+			return pieces;
+		}
+	}
+}
@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.Point2D;
@@ -17,6 +18,136 @@ public class KdTree {
 		this.size = 0;
 	}
 	
+	/**
+	 * Construct a balanced set with the provided points; the repeated points are
+	 * added only once. Every node is the median of its points by the coordinate
+	 * of its level, found by selection (nth-element) instead of sorting, so the
+	 * depth of the tree is O(log n) even if the points are sorted, and the time
+	 * is proportional to n log n.
+	 * 
+	 * @param points points to be added.
+	 */
+	public KdTree(Point2D[] points) {
+		if (points == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		Point2D[] copy = points.clone();
+		for (Point2D p : copy) {
+			if (p == null) {
+				throw new IllegalArgumentException();
+			}
+		}
+		
+		// remove the repeated points
+		Arrays.sort(copy);
+		int n = 0;
+		for (int i = 0; i < copy.length; i++) {
+			if (n == 0 || copy[i].compareTo(copy[n - 1]) != 0) {
+				copy[n++] = copy[i];
+			}
+		}
+		
+		this.root = build(copy, 0, n - 1, true);
+		this.size = n;
+	}
+	
+	private KdNode build(Point2D[] points, int lo, int hi, boolean vertical) {
+		
+		if (lo > hi) {
+			return null;
+		}
+		
+		int median = lo + (hi - lo) / 2;
+		select(points, lo, hi, median, vertical);
+		
+		// the points with the same coordinate than the median must be in the
+		// left subtree, like in insert(); they are moved next to the median
+		double coordinate = coordinate(points[median], vertical);
+		for (int i = median + 1; i <= hi; i++) {
+			if (coordinate(points[i], vertical) == coordinate) {
+				exchange(points, i, ++median);
+			}
+		}
+		
+		KdNode node = new KdNode();
+		node.vertical = vertical;
+		node.point = points[median];
+		node.left = build(points, lo, median - 1, !vertical);
+		node.right = build(points, median + 1, hi, !vertical);
+		
+		return node;
+	}
+	
+	/**
+	 * Rearrange the points between lo and hi so the point at the position k is
+	 * the one that would be there if they were sorted by the coordinate, the
+	 * points before are not greater and the points after are not smaller.
+	 */
+	private static void select(Point2D[] points, int lo, int hi, int k, boolean vertical) {
+		while (hi > lo) {
+			int j = partition(points, lo, hi, vertical);
+			if (j < k) {
+				lo = j + 1;
+			}
+			else if (j > k) {
+				hi = j - 1;
+			}
+			else {
+				return;
+			}
+		}
+	}
+	
+	private static int partition(Point2D[] points, int lo, int hi, boolean vertical) {
+		
+		// median of three as pivot, so sorted points are not the worst case
+		int mid = lo + (hi - lo) / 2;
+		if (coordinate(points[mid], vertical) < coordinate(points[lo], vertical)) {
+			exchange(points, mid, lo);
+		}
+		if (coordinate(points[hi], vertical) < coordinate(points[lo], vertical)) {
+			exchange(points, hi, lo);
+		}
+		if (coordinate(points[hi], vertical) < coordinate(points[mid], vertical)) {
+			exchange(points, hi, mid);
+		}
+		exchange(points, lo, mid);
+		
+		double pivot = coordinate(points[lo], vertical);
+		int i = lo;
+		int j = hi + 1;
+		while (true) {
+			while (coordinate(points[++i], vertical) < pivot) {
+				if (i == hi) {
+					break;
+				}
+			}
+			while (pivot < coordinate(points[--j], vertical)) {
+				if (j == lo) {
+					break;
+				}
+			}
+			if (i >= j) {
+				break;
+			}
+			exchange(points, i, j);
+		}
+		exchange(points, lo, j);
+		
+		return j;
+	}
+	
+	private static double coordinate(Point2D p, boolean vertical) {
+		return vertical ? p.x() : p.y();
+	}
+	
+	private static void exchange(Point2D[] points, int i, int j) {
+		Point2D swap = points[i];
+		points[i] = points[j];
+		points[j] = swap;
+	}
+	
 	/**
 	 * Determine is the set is empty.
 	 * 
@@ -304,48 +435,215 @@ public class KdTree {
 			return null;
 		}
 
-		Point2D nearest = nearest(p, this.root);
+		// the rectangle of the root is the whole plane; every node divides the
+		// rectangle of its parent
+		double inf = Double.POSITIVE_INFINITY;
+		Point2D nearest = nearest(p, this.root, this.root.point, -inf, -inf, inf, inf);
 		
 		return nearest;
 	}
 	
-	private Point2D nearest(Point2D p, KdNode currentNode) {
+	private Point2D nearest(Point2D p, KdNode currentNode, Point2D nearest,
+			double xmin, double ymin, double xmax, double ymax) {
 		
-		Point2D nearest = null;
-		Point2D nearestL = null;
-		Point2D nearestR = null;
-		
-		if (currentNode.left != null) {
-			nearestL = nearest(p, currentNode.left);
+		if (currentNode == null) {
+			return nearest;
 		}
 		
-		if (currentNode.right != null) {
-			nearestR = nearest(p, currentNode.right);
+		// prune the subtree if its rectangle is not closer than the nearest point
+		double nearestDistance = nearest.distanceSquaredTo(p);
+		if (distanceSquaredTo(p, xmin, ymin, xmax, ymax) >= nearestDistance) {
+			return nearest;
 		}
 		
-		if (nearestL == null && nearestR == null) {
+		if (currentNode.point.distanceSquaredTo(p) < nearestDistance) {
 			nearest = currentNode.point;
 		}
-		else if (nearestL == null && nearestR != null) {
-			nearest = nearestR;
-		}
-		else if (nearestL != null && nearestR == null) {
-			nearest = nearestL;
+		
+		// search first the side of the provided point, then the other side
+		if (currentNode.vertical) {
+			double x = currentNode.point.x();
+			if (p.x() <= x) {
+				nearest = nearest(p, currentNode.left, nearest, xmin, ymin, x, ymax);
+				nearest = nearest(p, currentNode.right, nearest, x, ymin, xmax, ymax);
+			}
+			else {
+				nearest = nearest(p, currentNode.right, nearest, x, ymin, xmax, ymax);
+				nearest = nearest(p, currentNode.left, nearest, xmin, ymin, x, ymax);
+			}
 		}
 		else {
-			if (nearestL.distanceSquaredTo(p) <= nearestR.distanceSquaredTo(p)) {
-				nearest = nearestL;
+			double y = currentNode.point.y();
+			if (p.y() <= y) {
+				nearest = nearest(p, currentNode.left, nearest, xmin, ymin, xmax, y);
+				nearest = nearest(p, currentNode.right, nearest, xmin, y, xmax, ymax);
 			}
 			else {
-				nearest = nearestR;
+				nearest = nearest(p, currentNode.right, nearest, xmin, y, xmax, ymax);
+				nearest = nearest(p, currentNode.left, nearest, xmin, ymin, xmax, y);
 			}
 		}
 		
-		if (nearest.distanceSquaredTo(p) > currentNode.point.distanceSquaredTo(p)) {
-			nearest = currentNode.point;
+		return nearest;
+	}
+	
+	/**
+	 * Square of the distance between the point and the rectangle, 0 if the point
+	 * is inside; the rectangle can be unbounded.
+	 */
+	private static double distanceSquaredTo(Point2D p, double xmin, double ymin, double xmax, double ymax) {
+		double dx = 0;
+		double dy = 0;
+		
+		if (p.x() < xmin) {
+			dx = xmin - p.x();
+		}
+		else if (p.x() > xmax) {
+			dx = p.x() - xmax;
 		}
 		
-		return nearest;
+		if (p.y() < ymin) {
+			dy = ymin - p.y();
+		}
+		else if (p.y() > ymax) {
+			dy = p.y() - ymax;
+		}
+		
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Return the k nearest neighbors in the set to provided point, sorted by
+	 * distance. Allocates the result; for repeated queries use the method with a
+	 * buffer.
+	 * 
+	 * @param p provided point
+	 * @param k number of neighbors
+	 * @return the min(k, size) nearest points to provided point, the nearest
+	 *         first
+	 */
+	public Iterable<Point2D> nearest(Point2D p, int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		Point2D[] neighbors = new Point2D[Math.min(k, this.size)];
+		nearest(p, neighbors.length, neighbors);
+		
+		return Arrays.asList(neighbors);
+	}
+	
+	/**
+	 * Find the k nearest neighbors in the set to provided point and save them in
+	 * the buffer, sorted by distance. The neighbors are kept in a max-heap of k
+	 * points, ordered by the distance, inside the buffer; a subtree is pruned when
+	 * the heap is full and the rectangle of the subtree is not closer than the
+	 * farthest point of the heap. At the end the heap is sorted in place. The
+	 * query does not allocate memory and does not modify the tree, so many
+	 * threads can query the same tree, each one with its own buffer.
+	 * 
+	 * @param p      provided point
+	 * @param k      number of neighbors
+	 * @param buffer array that receives the neighbors, with at least k positions
+	 * @return number of neighbors saved, min(k, size)
+	 */
+	public int nearest(Point2D p, int k, Point2D[] buffer) {
+		if (p == null || buffer == null || k < 0 || k > buffer.length) {
+			throw new IllegalArgumentException();
+		}
+		
+		int n = Math.min(k, this.size);
+		if (n == 0) {
+			return 0;
+		}
+		
+		double inf = Double.POSITIVE_INFINITY;
+		nearest(p, this.root, n, buffer, 0, -inf, -inf, inf, inf);
+		
+		// heap sort: the farthest point goes to the end every time
+		for (int last = n - 1; last > 0; last--) {
+			exchange(buffer, 0, last);
+			sink(p, buffer, 0, last);
+		}
+		
+		return n;
+	}
+	
+	private int nearest(Point2D p, KdNode currentNode, int k, Point2D[] heap, int heapSize,
+			double xmin, double ymin, double xmax, double ymax) {
+		
+		if (currentNode == null) {
+			return heapSize;
+		}
+		
+		// prune the subtree if the heap is full and its rectangle is not closer
+		// than the farthest point of the heap
+		if (heapSize == k && distanceSquaredTo(p, xmin, ymin, xmax, ymax) >= heap[0].distanceSquaredTo(p)) {
+			return heapSize;
+		}
+		
+		double distance = currentNode.point.distanceSquaredTo(p);
+		if (heapSize < k) {
+			heap[heapSize] = currentNode.point;
+			swim(p, heap, heapSize);
+			heapSize++;
+		}
+		else if (distance < heap[0].distanceSquaredTo(p)) {
+			heap[0] = currentNode.point;
+			sink(p, heap, 0, heapSize);
+		}
+		
+		// search first the side of the provided point, then the other side
+		if (currentNode.vertical) {
+			double x = currentNode.point.x();
+			if (p.x() <= x) {
+				heapSize = nearest(p, currentNode.left, k, heap, heapSize, xmin, ymin, x, ymax);
+				heapSize = nearest(p, currentNode.right, k, heap, heapSize, x, ymin, xmax, ymax);
+			}
+			else {
+				heapSize = nearest(p, currentNode.right, k, heap, heapSize, x, ymin, xmax, ymax);
+				heapSize = nearest(p, currentNode.left, k, heap, heapSize, xmin, ymin, x, ymax);
+			}
+		}
+		else {
+			double y = currentNode.point.y();
+			if (p.y() <= y) {
+				heapSize = nearest(p, currentNode.left, k, heap, heapSize, xmin, ymin, xmax, y);
+				heapSize = nearest(p, currentNode.right, k, heap, heapSize, xmin, y, xmax, ymax);
+			}
+			else {
+				heapSize = nearest(p, currentNode.right, k, heap, heapSize, xmin, y, xmax, ymax);
+				heapSize = nearest(p, currentNode.left, k, heap, heapSize, xmin, ymin, xmax, y);
+			}
+		}
+		
+		return heapSize;
+	}
+	
+	// move up the element i of the heap while it is farther from p than its
+	// parent; the distances are computed again instead of saved, so the query
+	// does not write in the tree
+	private static void swim(Point2D p, Point2D[] heap, int i) {
+		while (i > 0 && heap[(i - 1) / 2].distanceSquaredTo(p) < heap[i].distanceSquaredTo(p)) {
+			exchange(heap, i, (i - 1) / 2);
+			i = (i - 1) / 2;
+		}
+	}
+	
+	// move down the element i of the heap of n elements while it is closer to p
+	// than one of its children
+	private static void sink(Point2D p, Point2D[] heap, int i, int n) {
+		while (2 * i + 1 < n) {
+			int child = 2 * i + 1;
+			if (child + 1 < n && heap[child].distanceSquaredTo(p) < heap[child + 1].distanceSquaredTo(p)) {
+				child++;
+			}
+			if (heap[i].distanceSquaredTo(p) >= heap[child].distanceSquaredTo(p)) {
+				break;
+			}
+			exchange(heap, i, child);
+			i = child;
+		}
 	}
 
 	/**
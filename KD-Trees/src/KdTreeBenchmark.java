@@ -0,0 +1,97 @@
+import java.util.Random;
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Client that measures the cost of the nearest neighbor queries of KdTree
+ * against the brute force of PointSET, for random points in the unit square
+ * and sizes from 1,000 to the maximum size (1,000,000 by default), multiplying
+ * by 10 each time. Prints the time per query; the cost of KdTree grows like
+ * log n and the cost of PointSET like n. The queries of the K nearest
+ * neighbors of KdTree use the same buffer every time.
+ *
+ * PointSET checks all the points for every query, so it only runs until
+ * BRUTE_MAX_SIZE points, with less queries. Both answers are compared.
+ *
+ * Usage: java KdTreeBenchmark [maximum size]
+ */
+public class KdTreeBenchmark {
+	private static final int QUERIES = 100000;
+	private static final int BRUTE_QUERIES = 1000;
+	private static final int BRUTE_MAX_SIZE = 100000;
+	private static final int RUNS = 3;
+	private static final int K = 10;
+
+	/**
+	 * Run the queries for every size and print a table with the results.
+	 *
+	 * @param args optional maximum size
+	 */
+	public static void main(String[] args) {
+		int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		Random random = new Random(1);
+
+		StdOut.printf("%10s %18s %18s %18s%n", "n", "KdTree ns/query", "k=" + K + " ns/query", "PointSET ns/query");
+		for (int n = 1000; n <= maxSize; n *= 10) {
+			Point2D[] points = randomPoints(n, random);
+			Point2D[] queries = randomPoints(QUERIES, random);
+
+			KdTree kdtree = new KdTree(points);
+			double kdtreeTime = Double.POSITIVE_INFINITY;
+			for (int r = 0; r < RUNS; r++) {
+				long start = System.nanoTime();
+				for (Point2D q : queries) {
+					kdtree.nearest(q);
+				}
+				kdtreeTime = Math.min(kdtreeTime, (double) (System.nanoTime() - start) / queries.length);
+			}
+
+			Point2D[] neighbors = new Point2D[K];
+			double neighborsTime = Double.POSITIVE_INFINITY;
+			for (int r = 0; r < RUNS; r++) {
+				long start = System.nanoTime();
+				for (Point2D q : queries) {
+					kdtree.nearest(q, K, neighbors);
+				}
+				neighborsTime = Math.min(neighborsTime, (double) (System.nanoTime() - start) / queries.length);
+			}
+
+			if (n > BRUTE_MAX_SIZE) {
+				StdOut.printf("%10d %18.1f %18.1f %18s%n", n, kdtreeTime, neighborsTime, "-");
+				continue;
+			}
+
+			PointSET brute = new PointSET();
+			for (Point2D p : points) {
+				brute.insert(p);
+			}
+			double bruteTime = Double.POSITIVE_INFINITY;
+			for (int r = 0; r < RUNS; r++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < BRUTE_QUERIES; i++) {
+					brute.nearest(queries[i]);
+				}
+				bruteTime = Math.min(bruteTime, (double) (System.nanoTime() - start) / BRUTE_QUERIES);
+			}
+
+			// the distances must be the same, the points can be different if there are ties
+			for (int i = 0; i < BRUTE_QUERIES; i++) {
+				Point2D q = queries[i];
+				if (kdtree.nearest(q).distanceSquaredTo(q) != brute.nearest(q).distanceSquaredTo(q)) {
+					throw new IllegalStateException("Different nearest point for " + q);
+				}
+			}
+
+			StdOut.printf("%10d %18.1f %18.1f %18.1f%n", n, kdtreeTime, neighborsTime, bruteTime);
+		}
+	}
+
+	private static Point2D[] randomPoints(int n, Random random) {
+		Point2D[] points = new Point2D[n];
+		for (int i = 0; i < n; i++) {
+			points[i] = new Point2D(random.nextDouble(), random.nextDouble());
+		}
+		return points;
+	}
+}
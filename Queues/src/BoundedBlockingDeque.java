@@ -0,0 +1,396 @@
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded blocking deque is a deque with a maximum number of elements that
+ * can be shared between threads. The threads that add elements wait while the
+ * deque is full, and the threads that remove elements wait while the deque is
+ * empty, giving back-pressure between producers and consumers.
+ *
+ * The elements are saved in a circular array, so all the operations at both
+ * ends take constant time. drainTo moves many elements with only one
+ * acquisition of the lock.
+ *
+ * @author gabrielrodriguezj
+ * @since 03/19
+ * @version 1.0
+ *
+ * @param <Item> Data type that will contain the deque.
+ */
+public class BoundedBlockingDeque<Item> {
+
+	/**
+	 * Circular array with the elements of the deque.
+	 */
+	private final Item[] items;
+
+	/**
+	 * Position of the first element in the deque.
+	 */
+	private int first;
+
+	/**
+	 * Counter of the number elements in the deque.
+	 */
+	private int size;
+
+	/**
+	 * Lock that guards all the fields.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * Condition for the threads waiting for an element.
+	 */
+	private final Condition notEmpty;
+
+	/**
+	 * Condition for the threads waiting for a free position.
+	 */
+	private final Condition notFull;
+
+	/**
+	 * Construct an empty deque with the provided capacity.
+	 *
+	 * @param capacity Maximum number of elements in the deque.
+	 */
+	@SuppressWarnings("unchecked")
+	public BoundedBlockingDeque(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive");
+		}
+		this.items = (Item[]) new Object[capacity];
+		this.first = 0;
+		this.size = 0;
+		this.lock = new ReentrantLock();
+		this.notEmpty = lock.newCondition();
+		this.notFull = lock.newCondition();
+	}
+
+	/**
+	 * Method for determinate if the deque is empty.
+	 *
+	 * @return <tt>True</tt> if the deque is empty, <tt>false</tt> if is not empty.
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Method for get the number of items on the deque.
+	 *
+	 * @return number of items on the deque.
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return size;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method for get the maximum number of items on the deque.
+	 *
+	 * @return capacity of the deque.
+	 */
+	public int capacity() {
+		return items.length;
+	}
+
+	/**
+	 * Add the item to the front of the deque, waiting while the deque is full.
+	 *
+	 * @param item Element to add at deque.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public void putFirst(Item item) throws InterruptedException {
+		checkItem(item);
+		lock.lockInterruptibly();
+		try {
+			while (size == items.length) {
+				notFull.await();
+			}
+			linkFirst(item);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Add the item to the end of the deque, waiting while the deque is full.
+	 *
+	 * @param item Element to add at deque.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public void putLast(Item item) throws InterruptedException {
+		checkItem(item);
+		lock.lockInterruptibly();
+		try {
+			while (size == items.length) {
+				notFull.await();
+			}
+			linkLast(item);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Add the item to the front of the deque, waiting at most the provided time
+	 * while the deque is full.
+	 *
+	 * @param item    Element to add at deque.
+	 * @param timeout Maximum time to wait.
+	 * @param unit    Unit of the timeout.
+	 * @return <tt>True</tt> if the item was added, <tt>false</tt> if the time
+	 *         elapsed.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public boolean offerFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+		checkItem(item);
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (size == items.length) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			linkFirst(item);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Add the item to the end of the deque, waiting at most the provided time
+	 * while the deque is full.
+	 *
+	 * @param item    Element to add at deque.
+	 * @param timeout Maximum time to wait.
+	 * @param unit    Unit of the timeout.
+	 * @return <tt>True</tt> if the item was added, <tt>false</tt> if the time
+	 *         elapsed.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public boolean offerLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+		checkItem(item);
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (size == items.length) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			linkLast(item);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the item from the front of the deque, waiting while the
+	 * deque is empty.
+	 *
+	 * @return Element removed of the deque.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public Item takeFirst() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (size == 0) {
+				notEmpty.await();
+			}
+			return unlinkFirst();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the item from the end of the deque, waiting while the
+	 * deque is empty.
+	 *
+	 * @return Element removed of the deque.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public Item takeLast() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (size == 0) {
+				notEmpty.await();
+			}
+			return unlinkLast();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the item from the front of the deque, waiting at most the
+	 * provided time while the deque is empty.
+	 *
+	 * @param timeout Maximum time to wait.
+	 * @param unit    Unit of the timeout.
+	 * @return Element removed of the deque, null if the time elapsed.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public Item pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (size == 0) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return unlinkFirst();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove and return the item from the end of the deque, waiting at most the
+	 * provided time while the deque is empty.
+	 *
+	 * @param timeout Maximum time to wait.
+	 * @param unit    Unit of the timeout.
+	 * @return Element removed of the deque, null if the time elapsed.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public Item pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (size == 0) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return unlinkLast();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove at most max items from the front of the deque and add them, in
+	 * order, to the provided collection; does not wait for elements. All the
+	 * items are moved with one acquisition of the lock.
+	 *
+	 * @param collection Collection that receives the items.
+	 * @param max        Maximum number of items to move.
+	 * @return Number of items moved.
+	 */
+	public int drainTo(Collection<? super Item> collection, int max) {
+		if (collection == null) {
+			throw new IllegalArgumentException("The collection must not be null");
+		}
+		if (max < 0) {
+			throw new IllegalArgumentException("The maximum number of items must not be negative");
+		}
+
+		lock.lock();
+		try {
+			int n = Math.min(max, size);
+			int moved = 0;
+			try {
+				while (moved < n) {
+					collection.add(items[first]);
+					items[first] = null;
+					first = (first + 1) % items.length;
+					moved++;
+				}
+				return n;
+			} finally {
+				// Keep the deque consistent with the items moved, also if the
+				// collection throws an exception; the free positions can be used by
+				// the waiting producers
+				if (moved > 0) {
+					size -= moved;
+					notFull.signalAll();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Save the item before the first element; the lock must be held and the deque
+	 * must not be full.
+	 *
+	 * @param item Element to add at deque.
+	 */
+	private void linkFirst(Item item) {
+		first = (first - 1 + items.length) % items.length;
+		items[first] = item;
+		size++;
+		notEmpty.signal();
+	}
+
+	/**
+	 * Save the item after the last element; the lock must be held and the deque
+	 * must not be full.
+	 *
+	 * @param item Element to add at deque.
+	 */
+	private void linkLast(Item item) {
+		items[(first + size) % items.length] = item;
+		size++;
+		notEmpty.signal();
+	}
+
+	/**
+	 * Remove the first element; the lock must be held and the deque must not be
+	 * empty.
+	 *
+	 * @return Element removed of the deque.
+	 */
+	private Item unlinkFirst() {
+		Item item = items[first];
+		items[first] = null;
+		first = (first + 1) % items.length;
+		size--;
+		notFull.signal();
+		return item;
+	}
+
+	/**
+	 * Remove the last element; the lock must be held and the deque must not be
+	 * empty.
+	 *
+	 * @return Element removed of the deque.
+	 */
+	private Item unlinkLast() {
+		int last = (first + size - 1) % items.length;
+		Item item = items[last];
+		items[last] = null;
+		size--;
+		notFull.signal();
+		return item;
+	}
+
+	/**
+	 * Method for check if the element to add is valid.
+	 *
+	 * @param item Element to add at deque.
+	 */
+	private void checkItem(Item item) {
+		if (item == null) {
+			throw new IllegalArgumentException("The element to add must not be null");
+		}
+	}
+}
@@ -1,5 +1,8 @@
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * A double-ended queue or deque (pronounced "deck") is a generalization of a
@@ -29,6 +32,12 @@ public class Deque<Item> implements Iterable<Item> {
 	 */
 	private int size;
 
+	/**
+	 * Counter of the modifications of the deque, used by the iterators to detect
+	 * modifications while iterating.
+	 */
+	private int modCount;
+
 	/**
 	 * Construct an empty deque.
 	 */
@@ -78,6 +87,7 @@ public class Deque<Item> implements Iterable<Item> {
 		
 		//Increase the counter
 		size++;
+		modCount++;
 	}
 
 	/**
@@ -106,6 +116,7 @@ public class Deque<Item> implements Iterable<Item> {
 			
 			//Increment the counter
 			size++;
+			modCount++;
 		}
 	}
 
@@ -125,6 +136,7 @@ public class Deque<Item> implements Iterable<Item> {
 		
 		//Decrease the counter;
 		size--;
+		modCount++;
 		
 		return removed.item;
 	}
@@ -163,6 +175,7 @@ public class Deque<Item> implements Iterable<Item> {
 		
 		//Decrease the counter
 		size--;
+		modCount++;
 		
 		return removed.item;
 	}
@@ -173,6 +186,16 @@ public class Deque<Item> implements Iterable<Item> {
 	public Iterator<Item> iterator(){
 		return new DequeIterator();
 	}
+
+	/**
+	 * Return a spliterator over items in order from front to end. The
+	 * spliterator knows its exact size and splits in two halves, so the deque can
+	 * feed parallel streams.
+	 */
+	@Override
+	public Spliterator<Item> spliterator() {
+		return new DequeSpliterator(first, size, modCount);
+	}
 	
 	/**
 	 * Class for representing a element in the deque.
@@ -218,6 +241,11 @@ public class Deque<Item> implements Iterable<Item> {
 		 */
 		private Node current = first;
 		
+		/**
+		 * Number of modifications of the deque when the iterator was created.
+		 */
+		private final int expectedModCount = modCount;
+		
 		/**
 		 * Method to determinate if there is a next element for iterate.
 		 */
@@ -239,6 +267,9 @@ public class Deque<Item> implements Iterable<Item> {
 		 */
 		@Override
 		public Item next() {
+			if(modCount != expectedModCount) {
+				throw new ConcurrentModificationException("The deque was modified while iterating");
+			}
 			if(!hasNext()) {
 				throw new NoSuchElementException("No next element avaliable");
 			}
@@ -249,4 +280,133 @@ public class Deque<Item> implements Iterable<Item> {
 		}
 	}
 
+	/**
+	 * Implementation of the spliterator class. Covers a fixed number of nodes
+	 * starting at a node; splitting walks half of them to find where the second
+	 * half begins.
+	 * 
+	 * @author gabrielrodriguezj
+	 * @since 03/19
+	 * @version 1.0
+	 *
+	 */
+	private class DequeSpliterator implements Spliterator<Item> {
+		
+		/**
+		 * Next element to traverse.
+		 */
+		private Node current;
+		
+		/**
+		 * Number of elements left to traverse.
+		 */
+		private int remaining;
+		
+		/**
+		 * Number of modifications of the deque when the spliterator was created.
+		 */
+		private final int expectedModCount;
+		
+		/**
+		 * Constructor that covers the provided number of elements.
+		 * 
+		 * @param current          First element to traverse.
+		 * @param remaining        Number of elements to traverse.
+		 * @param expectedModCount Number of modifications of the deque.
+		 */
+		DequeSpliterator(Node current, int remaining, int expectedModCount) {
+			this.current = current;
+			this.remaining = remaining;
+			this.expectedModCount = expectedModCount;
+		}
+		
+		/**
+		 * Perform the action over the next element, if it exists.
+		 */
+		@Override
+		public boolean tryAdvance(Consumer<? super Item> action) {
+			if(action == null) {
+				throw new NullPointerException("The action must not be null");
+			}
+			checkForModification();
+			if(remaining == 0) {
+				return false;
+			}
+			
+			Item item = current.item;
+			current = current.next;
+			remaining--;
+			action.accept(item);
+			return true;
+		}
+		
+		/**
+		 * Perform the action over all the elements left; the modifications are
+		 * checked after every action, before following the next node, because the
+		 * action can remove the nodes that are not visited yet.
+		 */
+		@Override
+		public void forEachRemaining(Consumer<? super Item> action) {
+			if(action == null) {
+				throw new NullPointerException("The action must not be null");
+			}
+			
+			Node node = current;
+			int n = remaining;
+			current = null;
+			remaining = 0;
+			for(int i = 0; i < n; i++) {
+				action.accept(node.item);
+				checkForModification();
+				node = node.next;
+			}
+		}
+		
+		/**
+		 * Give the first half of the elements left to a new spliterator.
+		 */
+		@Override
+		public Spliterator<Item> trySplit() {
+			checkForModification();
+			if(remaining < 2) {
+				return null;
+			}
+			
+			int half = remaining / 2;
+			Node begin = current;
+			for(int i = 0; i < half; i++) {
+				current = current.next;
+			}
+			remaining -= half;
+			
+			return new DequeSpliterator(begin, half, expectedModCount);
+		}
+		
+		/**
+		 * Return the exact number of elements left.
+		 */
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+		
+		/**
+		 * The elements are ordered, not null and the sizes are exact.
+		 */
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+		
+		/**
+		 * Method for check if the deque was modified since the spliterator was
+		 * created.
+		 */
+		private void checkForModification() {
+			if(modCount != expectedModCount) {
+				throw new ConcurrentModificationException("The deque was modified while iterating");
+			}
+		}
+	}
+
 }
@@ -1,4 +1,12 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
+import java.util.SplittableRandom;
 
 import edu.princeton.cs.algs4.StdIn;
 
@@ -11,26 +19,152 @@ import edu.princeton.cs.algs4.StdIn;
  */
 public class Permutation {
 
+	/**
+	 * Maximum number of bytes mapped at a time; a single mapping can not exceed
+	 * Integer.MAX_VALUE bytes.
+	 */
+	private static final long MAPPING_SIZE = 1L << 30;
+
 	/**
 	 * Method that takes an integer k as a command-line argument; reads in a
 	 * sequence of strings from standard input using StdIn.readString(); and prints
 	 * exactly k of them, uniformly at random; May assume that 0 <= k <= n, where
 	 * n is the number of string on standard input.
 	 *
-	 * @param args Must contains a integer number (k).
+	 * If a file name is given as a second argument, the file is memory-mapped
+	 * and only the k selected strings are created.
+	 *
+	 * @param args Must contains a integer number (k), optionally a file name.
 	 */
 	public static void main(String[] args) {
 		int k = Integer.valueOf(args[0]);
+
+		if (args.length > 1) {
+			try {
+				printFromFile(args[1], k);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Could not read the file " + args[1], e);
+			}
+			return;
+		}
+
 		RandomizedQueue<String> rq = new RandomizedQueue<String>();
 		while(!StdIn.isEmpty()) {
 			String s = StdIn.readString();
 			rq.enqueue(s);
 		}
-		
+
 		Iterator<String> iter = rq.iterator();
 		for(int i=0; i<k; i++ ) {
 			String item = iter.next();
 			System.out.println(item);
 		}
 	}
+
+	/**
+	 * Prints k strings of the file, uniformly at random. The file is scanned
+	 * through memory mappings and only the offset and length of the tokens are
+	 * kept, using reservoir sampling, so at most k positions are in memory.
+	 * The k selected strings are read from the file at the end.
+	 *
+	 * @param fileName Name of the file with the strings.
+	 * @param k        Number of strings to print.
+	 * @throws IOException If the file can not be read.
+	 */
+	private static void printFromFile(String fileName, int k) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+
+			SplittableRandom generator = new SplittableRandom();
+
+			// Reservoir with the position and length of the selected tokens
+			long[] starts = new long[k];
+			int[] lengths = new int[k];
+			long tokens = 0;
+
+			long fileSize = channel.size();
+			long tokenStart = -1;
+			for (long offset = 0; offset < fileSize; offset += MAPPING_SIZE) {
+				int mapped = (int) Math.min(MAPPING_SIZE, fileSize - offset);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapped);
+
+				for (int i = 0; i < mapped; i++) {
+					boolean whitespace = isWhitespace(buffer.get(i));
+
+					if (tokenStart < 0 && !whitespace) {
+						// A token begins
+						tokenStart = offset + i;
+					} else if (tokenStart >= 0 && whitespace) {
+						// A token ends; a token can span two mappings
+						tokens = sample(generator, starts, lengths, tokens, tokenStart, offset + i);
+						tokenStart = -1;
+					}
+				}
+			}
+
+			// The last token ends with the file
+			if (tokenStart >= 0) {
+				tokens = sample(generator, starts, lengths, tokens, tokenStart, fileSize);
+			}
+
+			if (tokens < k) {
+				throw new IllegalArgumentException("The file contains less than " + k + " strings");
+			}
+
+			// The reservoir is a random subset, shuffle it for a random order
+			for (int i = k - 1; i > 0; i--) {
+				int r = generator.nextInt(i + 1);
+				long start = starts[i];
+				starts[i] = starts[r];
+				starts[r] = start;
+				int length = lengths[i];
+				lengths[i] = lengths[r];
+				lengths[r] = length;
+			}
+
+			// Only the selected tokens are created as String
+			for (int i = 0; i < k; i++) {
+				ByteBuffer token = ByteBuffer.allocate(lengths[i]);
+				while (token.hasRemaining()) {
+					channel.read(token, starts[i] + token.position());
+				}
+				System.out.println(new String(token.array(), StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	/**
+	 * Reservoir sampling step: the token number "tokens" replaces a random
+	 * position of the reservoir with probability k / (tokens + 1).
+	 *
+	 * @param generator Source of random numbers.
+	 * @param starts    Positions of the tokens in the reservoir.
+	 * @param lengths   Lengths of the tokens in the reservoir.
+	 * @param tokens    Number of tokens seen before this one.
+	 * @param start     Position where the token begins.
+	 * @param end       Position after the last byte of the token.
+	 * @return Number of tokens seen, including this one.
+	 */
+	private static long sample(SplittableRandom generator, long[] starts, int[] lengths, long tokens, long start,
+			long end) {
+		int k = starts.length;
+		long position = tokens < k ? tokens : generator.nextLong(tokens + 1);
+
+		if (position < k) {
+			starts[(int) position] = start;
+			lengths[(int) position] = (int) (end - start);
+		}
+
+		return tokens + 1;
+	}
+
+	/**
+	 * Method for determinate if a byte is a whitespace separator.
+	 *
+	 * @param b Byte of the file.
+	 * @return <tt>True</tt> if the byte is a whitespace, <tt>false</tt> in other
+	 *         case.
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+	}
 }
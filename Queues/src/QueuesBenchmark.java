@@ -0,0 +1,517 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Client that measures the throughput and the allocation of the Deque and
+ * RandomizedQueue classes, comparing them with java.util.ArrayDeque. Every
+ * workload runs for sizes from 10 to the maximum size (10,000,000 by default),
+ * multiplying by 10 each time, and prints the time and the bytes allocated per
+ * operation.
+ *
+ * The operations that walk the linked list (removeLast of the deque; dequeue
+ * and sample of the randomized queue) are limited to a fixed number of
+ * operations per size, otherwise the big sizes would not finish.
+ *
+ * Usage: java QueuesBenchmark [maximum size]
+ *
+ * @author gabrielrodriguezj
+ * @since 03/19
+ * @version 1.0
+ */
+public class QueuesBenchmark {
+
+	/**
+	 * Maximum number of operations for the workloads that walk the linked list.
+	 */
+	private static final int LINEAR_OPERATIONS = 1000;
+
+	/**
+	 * Number of times each workload runs before the measurement.
+	 */
+	private static final int WARMUP = 3;
+
+	/**
+	 * Number of measured runs; the best one is reported.
+	 */
+	private static final int RUNS = 5;
+
+	/**
+	 * Accumulates the results of the workloads so the JIT can not remove them.
+	 */
+	private static long sink;
+
+	/**
+	 * Bytes allocated by the measurement itself, discounted from the results.
+	 */
+	private static long allocationOverhead;
+
+	/**
+	 * Workload of the benchmark.
+	 */
+	private interface Workload {
+
+		/**
+		 * Prepares the data structure with n elements; not measured.
+		 *
+		 * @param n Size of the workload.
+		 */
+		void setUp(int n);
+
+		/**
+		 * Runs the measured operations.
+		 *
+		 * @param n Size of the workload.
+		 * @return Number of operations done.
+		 */
+		long run(int n);
+	}
+
+	/**
+	 * Runs every workload and prints a table with the results.
+	 *
+	 * @param args Optional maximum size.
+	 */
+	public static void main(String[] args) {
+		int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+		allocationOverhead = allocatedBytes();
+		allocationOverhead = allocatedBytes() - allocationOverhead;
+
+		StdOut.printf("%-36s %10s %12s %12s%n", "workload", "n", "ns/op", "bytes/op");
+		for (int n = 10; n <= maxSize; n *= 10) {
+			measure("Deque addFirst/removeFirst", n, dequeAddRemoveFirst());
+			measure("Deque addLast/removeFirst", n, dequeAddLastRemoveFirst());
+			measure("Deque removeLast", n, dequeRemoveLast());
+			measure("Deque iteration", n, dequeIteration());
+			measure("Deque mixed", n, dequeMixed());
+			measure("ArrayDeque addFirst/removeFirst", n, arrayDequeAddRemoveFirst());
+			measure("ArrayDeque addLast/removeLast", n, arrayDequeAddRemoveLast());
+			measure("ArrayDeque iteration", n, arrayDequeIteration());
+			measure("ArrayDeque mixed", n, arrayDequeMixed());
+			measure("RandomizedQueue enqueue", n, randomizedQueueEnqueue());
+			measure("RandomizedQueue dequeue", n, randomizedQueueDequeue());
+			measure("RandomizedQueue sample", n, randomizedQueueSample());
+			measure("RandomizedQueue bulk sample", n, randomizedQueueBulkSample());
+			measure("RandomizedQueue iteration", n, randomizedQueueIteration());
+			StdOut.println();
+		}
+		StdOut.println("checksum " + sink);
+	}
+
+	/**
+	 * Runs a workload and prints the time and the bytes allocated per operation
+	 * of the best run.
+	 *
+	 * @param name     Name of the workload.
+	 * @param n        Size of the workload.
+	 * @param workload Workload to measure.
+	 */
+	private static void measure(String name, int n, Workload workload) {
+		for (int i = 0; i < WARMUP; i++) {
+			workload.setUp(n);
+			workload.run(n);
+		}
+
+		double bestTime = Double.POSITIVE_INFINITY;
+		double bestBytes = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < RUNS; i++) {
+			workload.setUp(n);
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			long operations = workload.run(n);
+			long time = System.nanoTime() - start;
+			bytes = allocatedBytes() - bytes - allocationOverhead;
+
+			bestTime = Math.min(bestTime, (double) time / operations);
+			bestBytes = Math.min(bestBytes, (double) Math.max(bytes, 0) / operations);
+		}
+
+		StdOut.printf("%-36s %10d %12.2f %12.2f%n", name, n, bestTime, bestBytes);
+	}
+
+	/**
+	 * Method that return the bytes allocated by the current thread.
+	 *
+	 * @return Bytes allocated, or 0 if the JVM does not support the measurement.
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * Fills a deque with n elements.
+	 *
+	 * @param n Number of elements.
+	 * @return Deque with the elements 0 to n - 1.
+	 */
+	private static Deque<Integer> filledDeque(int n) {
+		Deque<Integer> deque = new Deque<Integer>();
+		for (int i = 0; i < n; i++) {
+			deque.addLast(i);
+		}
+		return deque;
+	}
+
+	/**
+	 * Fills an array deque with n elements.
+	 *
+	 * @param n Number of elements.
+	 * @return ArrayDeque with the elements 0 to n - 1.
+	 */
+	private static ArrayDeque<Integer> filledArrayDeque(int n) {
+		ArrayDeque<Integer> deque = new ArrayDeque<Integer>();
+		for (int i = 0; i < n; i++) {
+			deque.addLast(i);
+		}
+		return deque;
+	}
+
+	/**
+	 * Fills a randomized queue with n elements.
+	 *
+	 * @param n Number of elements.
+	 * @return RandomizedQueue with the elements 0 to n - 1.
+	 */
+	private static RandomizedQueue<Integer> filledRandomizedQueue(int n) {
+		RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>(new SplittableRandom(n));
+		for (int i = 0; i < n; i++) {
+			queue.enqueue(i);
+		}
+		return queue;
+	}
+
+	/**
+	 * Adds n elements at the front and removes them from the front.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload dequeAddRemoveFirst() {
+		return new Workload() {
+			public void setUp(int n) {
+			}
+
+			public long run(int n) {
+				Deque<Integer> deque = new Deque<Integer>();
+				for (int i = 0; i < n; i++) {
+					deque.addFirst(i);
+				}
+				for (int i = 0; i < n; i++) {
+					sink += deque.removeFirst();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Adds n elements at the end and removes them from the front.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload dequeAddLastRemoveFirst() {
+		return new Workload() {
+			public void setUp(int n) {
+			}
+
+			public long run(int n) {
+				Deque<Integer> deque = new Deque<Integer>();
+				for (int i = 0; i < n; i++) {
+					deque.addLast(i);
+				}
+				for (int i = 0; i < n; i++) {
+					sink += deque.removeFirst();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Removes elements from the end of a deque with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload dequeRemoveLast() {
+		return new Workload() {
+			private Deque<Integer> deque;
+
+			public void setUp(int n) {
+				deque = filledDeque(n);
+			}
+
+			public long run(int n) {
+				int operations = Math.min(n, LINEAR_OPERATIONS);
+				for (int i = 0; i < operations; i++) {
+					sink += deque.removeLast();
+				}
+				return operations;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over a deque with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload dequeIteration() {
+		return new Workload() {
+			private Deque<Integer> deque;
+
+			public void setUp(int n) {
+				deque = filledDeque(n);
+			}
+
+			public long run(int n) {
+				for (int item : deque) {
+					sink += item;
+				}
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * Random mix of additions at both ends and removals from the front over a
+	 * deque with n elements; the deque keeps its size around n.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload dequeMixed() {
+		return new Workload() {
+			private Deque<Integer> deque;
+
+			public void setUp(int n) {
+				deque = filledDeque(n);
+			}
+
+			public long run(int n) {
+				SplittableRandom random = new SplittableRandom(n);
+				for (int i = 0; i < n; i++) {
+					if (random.nextBoolean()) {
+						deque.addFirst(i);
+					} else {
+						deque.addLast(i);
+					}
+					sink += deque.removeFirst();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Adds n elements at the front and removes them from the front.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload arrayDequeAddRemoveFirst() {
+		return new Workload() {
+			public void setUp(int n) {
+			}
+
+			public long run(int n) {
+				ArrayDeque<Integer> deque = new ArrayDeque<Integer>();
+				for (int i = 0; i < n; i++) {
+					deque.addFirst(i);
+				}
+				for (int i = 0; i < n; i++) {
+					sink += deque.removeFirst();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Adds n elements at the end and removes them from the end.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload arrayDequeAddRemoveLast() {
+		return new Workload() {
+			public void setUp(int n) {
+			}
+
+			public long run(int n) {
+				ArrayDeque<Integer> deque = new ArrayDeque<Integer>();
+				for (int i = 0; i < n; i++) {
+					deque.addLast(i);
+				}
+				for (int i = 0; i < n; i++) {
+					sink += deque.removeLast();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over an array deque with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload arrayDequeIteration() {
+		return new Workload() {
+			private ArrayDeque<Integer> deque;
+
+			public void setUp(int n) {
+				deque = filledArrayDeque(n);
+			}
+
+			public long run(int n) {
+				for (int item : deque) {
+					sink += item;
+				}
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * The same mix of operations of dequeMixed over an array deque.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload arrayDequeMixed() {
+		return new Workload() {
+			private ArrayDeque<Integer> deque;
+
+			public void setUp(int n) {
+				deque = filledArrayDeque(n);
+			}
+
+			public long run(int n) {
+				SplittableRandom random = new SplittableRandom(n);
+				for (int i = 0; i < n; i++) {
+					if (random.nextBoolean()) {
+						deque.addFirst(i);
+					} else {
+						deque.addLast(i);
+					}
+					sink += deque.removeFirst();
+				}
+				return 2L * n;
+			}
+		};
+	}
+
+	/**
+	 * Adds n elements to a randomized queue.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload randomizedQueueEnqueue() {
+		return new Workload() {
+			public void setUp(int n) {
+			}
+
+			public long run(int n) {
+				RandomizedQueue<Integer> queue = filledRandomizedQueue(n);
+				sink += queue.size();
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * Removes random elements from a randomized queue with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload randomizedQueueDequeue() {
+		return new Workload() {
+			private RandomizedQueue<Integer> queue;
+
+			public void setUp(int n) {
+				queue = filledRandomizedQueue(n);
+			}
+
+			public long run(int n) {
+				int operations = Math.min(n, LINEAR_OPERATIONS);
+				for (int i = 0; i < operations; i++) {
+					sink += queue.dequeue();
+				}
+				return operations;
+			}
+		};
+	}
+
+	/**
+	 * Samples random elements from a randomized queue with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload randomizedQueueSample() {
+		return new Workload() {
+			private RandomizedQueue<Integer> queue;
+
+			public void setUp(int n) {
+				queue = filledRandomizedQueue(n);
+			}
+
+			public long run(int n) {
+				int operations = Math.min(n, LINEAR_OPERATIONS);
+				for (int i = 0; i < operations; i++) {
+					sink += queue.sample();
+				}
+				return operations;
+			}
+		};
+	}
+
+	/**
+	 * Samples the same number of elements of randomizedQueueSample with one
+	 * call of the bulk sample.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload randomizedQueueBulkSample() {
+		return new Workload() {
+			private RandomizedQueue<Integer> queue;
+			private Integer[] items;
+
+			public void setUp(int n) {
+				queue = filledRandomizedQueue(n);
+				items = new Integer[Math.min(n, LINEAR_OPERATIONS)];
+			}
+
+			public long run(int n) {
+				queue.sample(items, items.length, false);
+				for (Integer item : items) {
+					sink += item;
+				}
+				return items.length;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over a randomized queue with n elements.
+	 *
+	 * @return Workload.
+	 */
+	private static Workload randomizedQueueIteration() {
+		return new Workload() {
+			private RandomizedQueue<Integer> queue;
+
+			public void setUp(int n) {
+				queue = filledRandomizedQueue(n);
+			}
+
+			public long run(int n) {
+				for (int item : queue) {
+					sink += item;
+				}
+				return n;
+			}
+		};
+	}
+}
@@ -1,6 +1,9 @@
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import edu.princeton.cs.algs4.StdRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
 
 /**
  * A randomized queue is similar to a stack or queue, except that the item
@@ -30,12 +33,38 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 	private int size;
 
 	/**
-	 * Default constructor, construct an empty randomized queue.
+	 * Counter of the modifications of the randomized queue, used by the iterators
+	 * to detect modifications while iterating.
+	 */
+	private int modCount;
+
+	/**
+	 * Source of random numbers of this randomized queue and its iterators.
+	 */
+	private final SplittableRandom generator;
+
+	/**
+	 * Default constructor, construct an empty randomized queue with its own
+	 * SplittableRandom as source of random numbers.
 	 */
 	public RandomizedQueue() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Construct an empty randomized queue that takes the random numbers from the
+	 * provided generator; a seeded generator gives reproducible results.
+	 *
+	 * @param generator Source of random numbers.
+	 */
+	public RandomizedQueue(SplittableRandom generator) {
+		if (generator == null) {
+			throw new IllegalArgumentException("The random generator must not be null");
+		}
 		this.first = null;
 		this.last = null;
 		this.size = 0;
+		this.generator = generator;
 	}
 
 	/**
@@ -82,6 +111,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
 		// Increase the counter
 		size++;
+		modCount++;
 	}
 
 	/**
@@ -95,7 +125,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		}
 		
 		// Generate a random number from 0 to < size
-		int random = StdRandom.uniform(size);
+		int random = generator.nextInt(size);
 		Item item = null;
 		
 		if (random == 0) {
@@ -127,6 +157,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		
 		//Decrease the counter
 		size--;
+		modCount++;
 		
 		return item;
 	}
@@ -143,7 +174,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		}
 
 		// Generate a random number from 0 to < size
-		int random = StdRandom.uniform(size);
+		int random = generator.nextInt(size);
 
 		if (random == 0) {
 			// If the random element is the first element
@@ -161,6 +192,140 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		}
 	}
 
+	/**
+	 * Method that remove m random items of the randomized queue in one call. The
+	 * items are chosen by selection sampling in a single walk over the queue, and
+	 * are returned in random order.
+	 *
+	 * @param items Array where the removed elements are saved, from position 0.
+	 * @param m     Number of elements to remove.
+	 */
+	public void dequeue(Item[] items, int m) {
+		checkBulkArguments(items, m);
+		if (m > size) {
+			throw new NoSuchElementException("The randomized queue has less than " + m + " elements");
+		}
+
+		int selected = 0;
+		int remaining = size;
+		Node previous = null;
+		Node node = first;
+		while (selected < m) {
+			// Select the node with probability (m - selected) / remaining
+			if (generator.nextInt(remaining) < m - selected) {
+				items[selected++] = node.item;
+
+				// Unlink the node
+				if (previous == null) {
+					first = node.next;
+				} else {
+					previous.next = node.next;
+				}
+				if (node == last) {
+					last = previous;
+				}
+			} else {
+				previous = node;
+			}
+			node = node.next;
+			remaining--;
+		}
+
+		size -= m;
+		modCount++;
+
+		// The selection keeps the queue order, so shuffle the result
+		if (m > 1) {
+			shuffle(items, m);
+		}
+	}
+
+	/**
+	 * Method that return m random items of the randomized queue, but do not
+	 * remove them. The queue is walked only once for all the items.
+	 *
+	 * @param items           Array where the elements are saved, from position 0.
+	 * @param m               Number of elements to sample.
+	 * @param withReplacement <tt>True</tt> if an element can be sampled more than
+	 *                        once, <tt>false</tt> in other case.
+	 */
+	public void sample(Item[] items, int m, boolean withReplacement) {
+		checkBulkArguments(items, m);
+		if (m > 0 && isEmpty()) {
+			throw new NoSuchElementException("The randomized queue is empty");
+		}
+
+		if (withReplacement) {
+			// Generate the m random positions already sorted, for a single walk
+			// without an array of positions: the smallest of the k values left,
+			// uniform in [position, 1), is 1 - (1 - position) * U^(1/k)
+			double position = 0;
+			Node node = first;
+			int index = 0;
+			for (int i = 0; i < m; i++) {
+				position = 1 - (1 - position) * Math.pow(generator.nextDouble(), 1.0 / (m - i));
+				int target = Math.min((int) (position * size), size - 1);
+				while (index < target) {
+					node = node.next;
+					index++;
+				}
+				items[i] = node.item;
+			}
+		} else {
+			if (m > size) {
+				throw new NoSuchElementException("The randomized queue has less than " + m + " elements");
+			}
+
+			// Selection sampling: select each node with probability
+			// (m - selected) / remaining
+			int selected = 0;
+			int remaining = size;
+			Node node = first;
+			while (selected < m) {
+				if (generator.nextInt(remaining) < m - selected) {
+					items[selected++] = node.item;
+				}
+				node = node.next;
+				remaining--;
+			}
+		}
+
+		// Both walks keep the queue order, so shuffle the result
+		if (m > 1) {
+			shuffle(items, m);
+		}
+	}
+
+	/**
+	 * Method for rearrange the first m elements of the array in random order.
+	 *
+	 * @param items Array to shuffle.
+	 * @param m     Number of elements to shuffle.
+	 */
+	private void shuffle(Item[] items, int m) {
+		for (int i = m - 1; i > 0; i--) {
+			int r = generator.nextInt(i + 1);
+			Item item = items[i];
+			items[i] = items[r];
+			items[r] = item;
+		}
+	}
+
+	/**
+	 * Method for check the arguments of the bulk operations.
+	 *
+	 * @param items Array where the elements are saved.
+	 * @param m     Number of elements requested.
+	 */
+	private void checkBulkArguments(Item[] items, int m) {
+		if (items == null) {
+			throw new IllegalArgumentException("The array must not be null");
+		}
+		if (m < 0 || m > items.length) {
+			throw new IllegalArgumentException("The number of elements must be between 0 and " + items.length);
+		}
+	}
+
 	/**
 	 * Return an independent iterator over items in random order.
 	 */
@@ -168,6 +333,26 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		return new RandomizedQueueIterator();
 	}
 
+	/**
+	 * Return an independent spliterator over items in random order. The items are
+	 * shuffled into an array when the spliterator is created, so it splits in
+	 * balanced halves for parallel streams and later modifications of the queue
+	 * do not affect it.
+	 */
+	@Override
+	public Spliterator<Item> spliterator() {
+		Object[] elements = new Object[size];
+		Node node = first;
+		for (int i = 0; i < size; i++) {
+			// Inside-out Fisher-Yates shuffle while copying
+			int r = generator.nextInt(i + 1);
+			elements[i] = elements[r];
+			elements[r] = node.item;
+			node = node.next;
+		}
+		return Spliterators.spliterator(elements, Spliterator.NONNULL);
+	}
+
 	/**
 	 * Class for representing a element in the deque.
 	 * 
@@ -216,6 +401,12 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		 * Number of elements iterated over
 		 */
 		private int numElementsIterated;
+
+		/**
+		 * Number of modifications of the randomized queue when the iterator was
+		 * created.
+		 */
+		private final int expectedModCount;
 		
 		/**
 		 * Constructor that take the randomized queue and insert it into a array
@@ -223,6 +414,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		public RandomizedQueueIterator() {
 			this.elements = new Object[size];
 			this.numElementsIterated = 0;
+			this.expectedModCount = modCount;
 			
 			//Copy the randomized queue into an array
 			Node node = first;
@@ -253,6 +445,9 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		 */
 		@Override
 		public Item next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException("The randomized queue was modified while iterating");
+			}
 			if (!hasNext()) {
 				throw new NoSuchElementException("No next element avaliable");
 			}
@@ -261,7 +456,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 			Item item = null;
 			do {
 				// Generate a random number from 0 to < size
-				random = StdRandom.uniform(size);
+				random = generator.nextInt(size);
 				
 				item = (Item)elements[random];
 				
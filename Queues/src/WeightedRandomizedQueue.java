@@ -0,0 +1,351 @@
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A weighted randomized queue is similar to a randomized queue, except that the
+ * item removed is chosen at random with probability proportional to its weight.
+ *
+ * The weights are kept in a Fenwick tree (binary indexed tree), so enqueue,
+ * dequeue, sample and the weight updates take logarithmic time. Each element
+ * keeps the position it gets when it is added, this position is the key
+ * returned by enqueue and is used to change its weight. The positions of the
+ * removed elements are reused by the next elements added.
+ *
+ * @author gabrielrodriguezj
+ * @since 03/19
+ * @version 1.0
+ *
+ * @param <Item> Data type that will contain the weighted randomized queue.
+ */
+public class WeightedRandomizedQueue<Item> {
+
+	/**
+	 * Initial number of positions.
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Elements of the queue; a free position contains null.
+	 */
+	private Item[] items;
+
+	/**
+	 * Weight of every position; a free position has weight 0.
+	 */
+	private double[] weights;
+
+	/**
+	 * Fenwick tree over the weights, the position i of the array is the node i of
+	 * the tree (the node 0 is not used).
+	 */
+	private double[] tree;
+
+	/**
+	 * Stack of free positions, below the number of positions used.
+	 */
+	private int[] free;
+
+	/**
+	 * Number of elements in the stack of free positions.
+	 */
+	private int freeSize;
+
+	/**
+	 * Number of positions used, free or not.
+	 */
+	private int used;
+
+	/**
+	 * Counter of the number elements in the weighted randomized queue.
+	 */
+	private int size;
+
+	/**
+	 * Number of updates of the tree since it was rebuilt; the updates accumulate
+	 * floating point errors in the sums.
+	 */
+	private int updates;
+
+	/**
+	 * Source of random numbers of this weighted randomized queue.
+	 */
+	private final SplittableRandom generator;
+
+	/**
+	 * Default constructor, construct an empty weighted randomized queue with its
+	 * own SplittableRandom as source of random numbers.
+	 */
+	public WeightedRandomizedQueue() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Construct an empty weighted randomized queue that takes the random numbers
+	 * from the provided generator; a seeded generator gives reproducible results.
+	 *
+	 * @param generator Source of random numbers.
+	 */
+	public WeightedRandomizedQueue(SplittableRandom generator) {
+		if (generator == null) {
+			throw new IllegalArgumentException("The random generator must not be null");
+		}
+		resize(INITIAL_CAPACITY);
+		this.size = 0;
+		this.generator = generator;
+	}
+
+	/**
+	 * Method for check if the weighted randomized queue is empty.
+	 *
+	 * @return <tt>True</tt> if the weighted randomized queue is empty,
+	 *         <tt>false</tt> in other case.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Method that return the number of items on the weighted randomized queue.
+	 *
+	 * @return Number of items on the weighted randomized queue.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method that return the sum of the weights of the items on the queue.
+	 *
+	 * @return Total weight of the weighted randomized queue.
+	 */
+	public double totalWeight() {
+		return prefixSum(used);
+	}
+
+	/**
+	 * Method for add a element to the weighted randomized queue.
+	 *
+	 * @param item   Element for add to the weighted randomized queue.
+	 * @param weight Weight of the element, must be positive.
+	 * @return Key of the element, valid until the element is removed.
+	 */
+	public int enqueue(Item item, double weight) {
+		if (item == null) {
+			throw new IllegalArgumentException("The element to add must not be null");
+		}
+		checkWeight(weight);
+
+		int key;
+		if (freeSize > 0) {
+			// Reuse a free position
+			key = free[--freeSize];
+		} else {
+			if (used == items.length) {
+				resize(2 * items.length);
+			}
+			key = used++;
+		}
+
+		items[key] = item;
+		add(key, weight);
+
+		// Increase the counter
+		size++;
+
+		return key;
+	}
+
+	/**
+	 * Method for remove a random item of the weighted randomized queue; the
+	 * probability of each item is proportional to its weight.
+	 *
+	 * @return Random element removed of the weighted randomized queue.
+	 */
+	public Item dequeue() {
+		if (isEmpty()) {
+			throw new NoSuchElementException("The weighted randomized queue is empty");
+		}
+
+		int key = select();
+		Item item = items[key];
+
+		// Free the position
+		items[key] = null;
+		add(key, -weights[key]);
+		weights[key] = 0;
+		free[freeSize++] = key;
+
+		// Decrease the counter
+		size--;
+
+		// Without elements, all the positions are free
+		if (isEmpty()) {
+			resize(INITIAL_CAPACITY);
+		}
+
+		return item;
+	}
+
+	/**
+	 * Method that return a random item of the weighted randomized queue, but do
+	 * not remove it; the probability of each item is proportional to its weight.
+	 *
+	 * @return Random element of the weighted randomized queue.
+	 */
+	public Item sample() {
+		if (isEmpty()) {
+			throw new NoSuchElementException("The weighted randomized queue is empty");
+		}
+
+		return items[select()];
+	}
+
+	/**
+	 * Method that return the weight of a item of the weighted randomized queue.
+	 *
+	 * @param key Key returned when the element was added.
+	 * @return Weight of the element.
+	 */
+	public double weight(int key) {
+		checkKey(key);
+		return weights[key];
+	}
+
+	/**
+	 * Method for change the weight of a item of the weighted randomized queue.
+	 *
+	 * @param key    Key returned when the element was added.
+	 * @param weight New weight of the element, must be positive.
+	 */
+	public void setWeight(int key, double weight) {
+		checkKey(key);
+		checkWeight(weight);
+
+		add(key, weight - weights[key]);
+	}
+
+	/**
+	 * Method for select a random position with probability proportional to its
+	 * weight. Descend the Fenwick tree looking for the first position whose
+	 * prefix sum is greater than a random value in [0, total weight).
+	 *
+	 * @return Position selected.
+	 */
+	private int select() {
+		int capacity = items.length;
+		int position;
+		do {
+			double remaining = generator.nextDouble() * totalWeight();
+			position = 0;
+			for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+				int next = position + step;
+				if (next <= capacity && tree[next] <= remaining) {
+					position = next;
+					remaining -= tree[next];
+				}
+			}
+			// A rounding error can select a free position; try again
+		} while (position >= used || items[position] == null);
+
+		return position;
+	}
+
+	/**
+	 * Method for add a value to the weight of a position, updating the tree.
+	 *
+	 * @param position Position to update.
+	 * @param delta    Value to add to the weight.
+	 */
+	private void add(int position, double delta) {
+		weights[position] += delta;
+		for (int i = position + 1; i <= items.length; i += i & -i) {
+			tree[i] += delta;
+		}
+
+		// Rebuild the tree after many updates to discard the rounding errors
+		if (++updates > items.length) {
+			build();
+		}
+	}
+
+	/**
+	 * Method that return the sum of the weights of the first positions.
+	 *
+	 * @param n Number of positions to add.
+	 * @return Sum of the weights of the positions from 0 to n - 1.
+	 */
+	private double prefixSum(int n) {
+		double sum = 0;
+		for (int i = n; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Method for build the tree from the weights in linear time.
+	 */
+	private void build() {
+		int capacity = items.length;
+		for (int i = 1; i <= capacity; i++) {
+			tree[i] = weights[i - 1];
+		}
+		for (int i = 1; i <= capacity; i++) {
+			int parent = i + (i & -i);
+			if (parent <= capacity) {
+				tree[parent] += tree[i];
+			}
+		}
+		updates = 0;
+	}
+
+	/**
+	 * Method for change the number of positions. Without elements, the
+	 * positions are discarded.
+	 *
+	 * @param capacity New number of positions.
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int capacity) {
+		Item[] newItems = (Item[]) new Object[capacity];
+		double[] newWeights = new double[capacity];
+		int[] newFree = new int[capacity];
+
+		if (size > 0) {
+			System.arraycopy(items, 0, newItems, 0, used);
+			System.arraycopy(weights, 0, newWeights, 0, used);
+			System.arraycopy(free, 0, newFree, 0, freeSize);
+		} else {
+			used = 0;
+			freeSize = 0;
+		}
+
+		items = newItems;
+		weights = newWeights;
+		free = newFree;
+		tree = new double[capacity + 1];
+		build();
+	}
+
+	/**
+	 * Method for check if a weight is valid.
+	 *
+	 * @param weight Weight of a element.
+	 */
+	private void checkWeight(double weight) {
+		if (!(weight > 0) || Double.isInfinite(weight)) {
+			throw new IllegalArgumentException("The weight must be positive and finite");
+		}
+	}
+
+	/**
+	 * Method for check if a key belongs to a element in the queue.
+	 *
+	 * @param key Key of a element.
+	 */
+	private void checkKey(int key) {
+		if (key < 0 || key >= used || items[key] == null) {
+			throw new IllegalArgumentException("The key does not belong to an element of the queue");
+		}
+	}
+}